@@ -32,6 +32,11 @@ import java.util.List;
  */
 public class AddItemsToChestComponent implements Component {
     public List<ChestToFill> chestsToFill;
+    /**
+     * If true, the items get only created when a chest gets opened or destroyed for the first time. Until then the
+     * chest just remembers which items it will contain.
+     */
+    public boolean fillOnFirstOpen;
 
     @MappedContainer
     public static class ChestToFill {
@@ -16,6 +16,7 @@
 package org.terasology.structureTemplates.components;
 
 import org.terasology.entitySystem.Component;
+import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.Side;
@@ -43,4 +44,17 @@ public class PendingStructureSpawnComponent implements Component {
      * The direction that the front of the placed structure should be facing.
      */
     public Side front;
+    /**
+     * When greater than 0, the structure gets spawned only after a player got that close to it or after its chunk
+     * got loaded.
+     */
+    public float activationDistance;
+    /**
+     * Entity that tracks the limits and costs of the structures scheduled by the same root structure.
+     */
+    public EntityRef generationTree = EntityRef.NULL;
+    /**
+     * Number of scheduled placements between the root structure and this one.
+     */
+    public int depth;
 }
@@ -35,10 +35,38 @@ import java.util.List;
  * The structure spawning does not happen in the same event processing, but is schedueld
  * to be happen when the system finds time for it. When there are no other outstanding structure spawns this is
  * usually during the next update call of the systems..
+ *
+ * With a {@link #activationDistance} greater than 0 the scheduled structures wait till a player gets that close to
+ * them or till their chunk gets loaded.
  */
 public class ScheduleStructurePlacementComponent implements Component {
     public List<PlacementToSchedule> placementsToSchedule;
 
+    /**
+     * Distance in blocks a player must come to a scheduled structure before it gets spawned. 0 spawns the structures
+     * as soon as possible, independent of where the players are.
+     */
+    public float activationDistance;
+
+    /**
+     * If true, the structures for the placements and the placements of those structures get determined together
+     * before any of them gets spawned. Templates that don't fit in with the rest of the layout get replaced by other
+     * templates of the same type, and the whole layout gets spawned at once.
+     */
+    public boolean solveLayoutUpFront;
+
+    /**
+     * The following limits apply to all structures scheduled directly or indirectly by a root structure, that is a
+     * structure that did not get spawned via a scheduled placement itself. The limits of the root structure get used.
+     * Placements beyond a limit get dropped.
+     */
+    public int maxGenerationDepth = 32;
+    public int maxStructuresPerGeneration = 1000;
+    /**
+     * Maximum number of blocks all structures of a generation may fill together. 0 for no limit.
+     */
+    public long maxBlocksPerGeneration;
+
     @MappedContainer
     public static class PlacementToSchedule {
         /**
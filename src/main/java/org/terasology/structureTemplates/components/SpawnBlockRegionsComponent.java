@@ -29,11 +29,23 @@ import java.util.List;
  * Fills regions with blocks when a entity with component receives a {@link SpawnStructureEvent}.
  */
 public class SpawnBlockRegionsComponent implements Component {
+    /**
+     * Optional list of blocks the regions can refer to via {@link RegionToFill#blockIndex}. That way each block type
+     * needs to be named only once per template.
+     */
+    public List<Block> blockPalette = new ArrayList<>();
     public List<RegionToFill> regionsToFill = new ArrayList<>();
 
     @MappedContainer
     public static class RegionToFill {
         public Region3i region;
+        /**
+         * The block to fill the region with. Gets only used if {@link #blockIndex} is null.
+         */
         public Block blockType;
+        /**
+         * Optional index of the block in the {@link SpawnBlockRegionsComponent#blockPalette}.
+         */
+        public Integer blockIndex;
     }
 }
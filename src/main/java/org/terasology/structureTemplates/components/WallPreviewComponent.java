@@ -17,8 +17,8 @@ package org.terasology.structureTemplates.components;
 
 import org.terasology.entitySystem.Component;
 import org.terasology.math.Region3i;
-import org.terasology.network.FieldReplicateType;
-import org.terasology.network.Replicate;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
 import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent;
 
 import java.util.List;
@@ -28,10 +28,20 @@ import java.util.List;
  *
  * It is a separte component so that it is possibly to listen for actual modifications of the
  * {@link ReplaceWallItemComponent}.
+ *
+ * The component is only used on the client. The server calculates the wall itself from the start position and
+ * facing that get sent with the replacement request.
  */
 public class WallPreviewComponent implements Component {
-    // TODO it would be saver to let the server calculate the regions
-    @Replicate(FieldReplicateType.OWNER_TO_SERVER)
     public List<Region3i> wallRegions;
 
+    /**
+     * The wall block the player looks at or null if there is none.
+     */
+    public Vector3i startPosition;
+
+    /**
+     * The direction the player looks in.
+     */
+    public Side facing;
 }
@@ -19,6 +19,7 @@ import org.terasology.entitySystem.event.AbstractConsumableEvent;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.math.Region3i;
 import org.terasology.structureTemplates.components.CheckBlockRegionConditionComponent;
+import org.terasology.structureTemplates.util.PlannedBlocks;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 
 /**
@@ -27,9 +28,14 @@ import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
  * when spawning is not possible.
  *
  * See {@link CheckBlockRegionConditionComponent} for an example for such a component.
+ *
+ * When the structure is part of a layout that gets planned before it gets spawned, the event contains the
+ * {@link PlannedBlocks} of the other structures of the layout. Handlers that check blocks should then check the
+ * planned block where there is one, instead of the block of the world.
  */
 public class CheckSpawnConditionEvent extends AbstractConsumableEvent {
     private BlockRegionTransform blockRegionTransform;
+    private PlannedBlocks plannedBlocks;
     /** result of the event */
     private boolean preventSpawn;
     /** Meta data about result */
@@ -41,10 +47,22 @@ public class CheckSpawnConditionEvent extends AbstractConsumableEvent {
         this.blockRegionTransform = blockRegionTransform;
     }
 
+    public CheckSpawnConditionEvent(BlockRegionTransform blockRegionTransform, PlannedBlocks plannedBlocks) {
+        this.blockRegionTransform = blockRegionTransform;
+        this.plannedBlocks = plannedBlocks;
+    }
+
     public BlockRegionTransform getBlockRegionTransform() {
         return blockRegionTransform;
     }
 
+    /**
+     * @return the blocks that will be placed before the structure gets spawned, or null if there are none.
+     */
+    public PlannedBlocks getPlannedBlocks() {
+        return plannedBlocks;
+    }
+
     /**
      * Handler of this event call this method when they have determined if a spawn is possible or not.
      *
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.events;
+
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.event.AbstractConsumableEvent;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.RegionToFill;
+import org.terasology.world.block.entity.placement.PlaceBlocks;
+
+import java.util.List;
+
+/**
+ * Like {@link PlaceBlocks} but describes the blocks to place as regions. Send it to the world entity. Handlers can
+ * work with the regions instead of single blocks, which is a lot cheaper for big placements. Listeners of the
+ * {@link PlaceBlocks} event that follows still get every single block.
+ *
+ * The event gets consumed when the placement is not allowed. If it does not get consumed, a {@link PlaceBlocks} event
+ * for the blocks gets sent at trivial priority, so that listeners of that event can still prevent the placement.
+ * When regions overlap, the later region wins.
+ *
+ * The regions must specify their block via {@link RegionToFill#blockType}, as the event has no block palette that a
+ * {@link RegionToFill#blockIndex} could refer to.
+ */
+public class PlaceBlockRegions extends AbstractConsumableEvent {
+    private List<RegionToFill> regions;
+    private EntityRef instigator;
+
+    /**
+     * @throws IllegalArgumentException if a region has no blockType.
+     */
+    public PlaceBlockRegions(List<RegionToFill> regions, EntityRef instigator) throws IllegalArgumentException {
+        for (RegionToFill regionToFill : regions) {
+            if (regionToFill.blockType == null) {
+                throw new IllegalArgumentException("The region " + regionToFill.region + " has no blockType");
+            }
+        }
+        this.regions = regions;
+        this.instigator = instigator;
+    }
+
+    public List<RegionToFill> getRegions() {
+        return regions;
+    }
+
+    public EntityRef getInstigator() {
+        return instigator;
+    }
+}
@@ -21,6 +21,9 @@ import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 /**
  * Gets send when the basic blocks of a structure template got placed. Event handlers
  * typically add then entities that rely on the blocks being present.
+ *
+ * Blocks in chunks that are not loaded get only placed when their chunk gets loaded. Handlers that rely on the
+ * blocks need to wait for that chunk, like it is done for chests, prefabs and scheduled structures.
  */
 public class StructureBlocksSpawnedEvent implements Event {
     private BlockRegionTransform transformation;
@@ -19,8 +19,12 @@ import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.structureTemplates.components.StructureTemplateComponent;
 import org.terasology.structureTemplates.components.StructureTemplateTypeComponent;
+import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
+import org.terasology.structureTemplates.events.StructureSpawnStartedEvent;
+import org.terasology.structureTemplates.util.StructurePlacement;
 
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Allows you to get structure template prefabs.
@@ -65,4 +69,15 @@ public interface StructureTemplateProvider {
      */
     public Iterator<EntityRef> iterateStructureTempaltesOfTypeInRandomOrder(Prefab structureTemplateTypePrefab)
             throws IllegalArgumentException;
+
+    /**
+     * Spawns multiple structures in one pass. Each template gets first a {@link StructureSpawnStartedEvent}. Then
+     * the blocks of all structures get determined and placed with a single world write, so that a chunk touched by
+     * several structures gets modified only once. At the end each template gets a {@link StructureBlocksSpawnedEvent}.
+     *
+     * When structures overlap, the blocks of the structure that comes later in the list win.
+     *
+     * @param placements the templates to spawn with the transformation to apply to them.
+     */
+    void spawnStructures(List<StructurePlacement> placements);
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.util.PendingBlockPatches;
+import org.terasology.world.block.Block;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the blocks of spawned structures that could not be placed yet, as their chunk was not loaded. There is one
+ * entity per chunk. See {@link PendingBlockPatches} for how the blocks get added and read.
+ */
+public class PendingBlockPatchComponent implements Component {
+    public Vector3i chunkPosition;
+    public List<Block> palette = new ArrayList<>();
+    /**
+     * One 8 byte entry per block, sorted by position within the chunk and without duplicate positions. Each entry
+     * holds the index of the position within the chunk and the index of the block in {@link #palette}.
+     */
+    public byte[] entries = new byte[0];
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.components.AddItemsToChestComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the chests of spawned structures that could not get their items yet, as their chunk was not loaded. There
+ * is one entity per chunk. The positions of the chests are in world coordinates.
+ */
+public class PendingChestFillsComponent implements Component {
+    public Vector3i chunkPosition;
+    public List<AddItemsToChestComponent.ChestToFill> chestsToFill = new ArrayList<>();
+    /**
+     * See {@link AddItemsToChestComponent#fillOnFirstOpen}.
+     */
+    public List<AddItemsToChestComponent.ChestToFill> chestsToFillOnFirstOpen = new ArrayList<>();
+}
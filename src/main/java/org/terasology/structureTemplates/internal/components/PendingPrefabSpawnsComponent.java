@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.components.SpawnPrefabsComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the prefabs of spawned structures that did not get spawned yet, for one chunk. The positions and rotations
+ * of the prefabs are already in world coordinates.
+ */
+public class PendingPrefabSpawnsComponent implements Component {
+    public Vector3i chunkPosition;
+    public List<SpawnPrefabsComponent.PrefabToSpawn> prefabsToSpawn = new ArrayList<>();
+    /**
+     * The prefabs before this index got spawned already.
+     */
+    public int nextIndex;
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.network.Replicate;
+import org.terasology.reflection.MappedContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the time limited region protections of one sector of the world. A sector is a column of chunks that is
+ * several chunks wide, and a protected region belongs to the sector that contains its minimum. Replaces one entity
+ * with a lifespan per protected structure, while a change only needs to replicate the regions of one sector.
+ */
+public class ProtectedRegionRegistryComponent implements Component {
+    public Vector3i sectorPosition;
+
+    @Replicate
+    public List<ProtectedRegion> protectedRegions = new ArrayList<>();
+
+    @MappedContainer
+    public static class ProtectedRegion {
+        public Region3i region;
+        /**
+         * Game time in milliseconds at which the protection ends.
+         */
+        public long expiryTime;
+    }
+}
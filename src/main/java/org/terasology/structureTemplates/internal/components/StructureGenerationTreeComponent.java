@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.structureTemplates.components.PendingStructureSpawnComponent;
+import org.terasology.structureTemplates.components.ScheduleStructurePlacementComponent;
+
+/**
+ * Tracks the limits and costs of all structures that got scheduled, directly or indirectly, by the same root
+ * structure via {@link ScheduleStructurePlacementComponent}. The entity gets referenced by the
+ * {@link PendingStructureSpawnComponent}s of the tree and gets destroyed when the last of them is gone.
+ */
+public class StructureGenerationTreeComponent implements Component {
+    public int maxDepth;
+    public int maxStructures;
+    /**
+     * 0 for no limit.
+     */
+    public long maxBlocks;
+
+    public int structureCount;
+    public long blockCount;
+    public int reachedDepth;
+    public int cutOffPlacements;
+    public int pendingSpawnCount;
+    public long startTime;
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.components;
+
+import org.terasology.entitySystem.Component;
+import org.terasology.structureTemplates.components.AddItemsToChestComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Added to chests of spawned structures and describes the items that did not get added to the chest yet.
+ *
+ * The items get added over the next updates, or when the chest gets opened or destroyed for the first time if
+ * {@link #fillOnFirstOpen} is set.
+ */
+public class UnfilledChestComponent implements Component {
+    public List<AddItemsToChestComponent.Item> items = new ArrayList<>();
+    /**
+     * See {@link AddItemsToChestComponent#fillOnFirstOpen}.
+     */
+    public boolean fillOnFirstOpen;
+}
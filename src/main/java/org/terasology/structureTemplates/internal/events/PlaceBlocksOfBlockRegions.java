@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.events;
+
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.events.PlaceBlockRegions;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.entity.placement.PlaceBlocks;
+
+import java.util.Map;
+
+/**
+ * The {@link PlaceBlocks} event that gets sent for a {@link PlaceBlockRegions} event that did not get consumed.
+ *
+ * Listeners of {@link PlaceBlocks} can still prevent the placement, while the handlers of this module that already
+ * processed the regions can ignore it.
+ */
+public class PlaceBlocksOfBlockRegions extends PlaceBlocks {
+
+    public PlaceBlocksOfBlockRegions(Map<Vector3i, Block> blocks, EntityRef instigator) {
+        super(blocks, instigator);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.terasology.structureTemplates.internal.events;
 
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
 import org.terasology.network.NetworkEvent;
 import org.terasology.network.ServerEvent;
 import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent;
@@ -22,9 +24,32 @@ import org.terasology.structureTemplates.internal.components.ReplaceWallItemComp
 /**
  * Sent to an item with the {@link ReplaceWallItemComponent} component when the
  * user requests a block replacement with that item.
+ *
+ * The server determines the wall itself, starting at the given position. The blocks to replace are determined by
+ * the {@link ReplaceWallItemComponent} of the item.
  */
 @ServerEvent
 public class ReplaceBlocksRequest extends NetworkEvent {
+    private Vector3i startPosition;
+    private Side facing;
+
     public ReplaceBlocksRequest() {
     }
+
+    /**
+     * @param startPosition the wall block the player looked at.
+     * @param facing the direction the player looked in.
+     */
+    public ReplaceBlocksRequest(Vector3i startPosition, Side facing) {
+        this.startPosition = startPosition;
+        this.facing = facing;
+    }
+
+    public Vector3i getStartPosition() {
+        return startPosition;
+    }
+
+    public Side getFacing() {
+        return facing;
+    }
 }
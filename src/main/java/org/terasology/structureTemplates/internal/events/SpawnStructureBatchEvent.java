@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.events;
+
+import org.terasology.entitySystem.event.Event;
+import org.terasology.structureTemplates.interfaces.StructureTemplateProvider;
+import org.terasology.structureTemplates.util.StructurePlacement;
+
+import java.util.List;
+
+/**
+ * Sent to the world entity to spawn multiple structures at once.
+ *
+ * See {@link StructureTemplateProvider#spawnStructures(List)}.
+ */
+public class SpawnStructureBatchEvent implements Event {
+    private List<StructurePlacement> placements;
+
+    public SpawnStructureBatchEvent(List<StructurePlacement> placements) {
+        this.placements = placements;
+    }
+
+    public List<StructurePlacement> getPlacements() {
+        return placements;
+    }
+}
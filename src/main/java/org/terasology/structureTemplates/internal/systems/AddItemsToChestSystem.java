@@ -17,41 +17,64 @@ package org.terasology.structureTemplates.internal.systems;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.event.EventPriority;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.logic.common.ActivateEvent;
+import org.terasology.logic.health.DoDestroyEvent;
 import org.terasology.logic.inventory.InventoryManager;
 import org.terasology.logic.inventory.ItemComponent;
+import org.terasology.math.ChunkMath;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.AddItemsToChestComponent;
 import org.terasology.structureTemplates.events.BuildStructureTemplateEntityEvent;
 import org.terasology.structureTemplates.events.SpawnTemplateEvent;
 import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
+import org.terasology.structureTemplates.internal.components.PendingChestFillsComponent;
+import org.terasology.structureTemplates.internal.components.UnfilledChestComponent;
 import org.terasology.structureTemplates.internal.events.BuildStructureTemplateStringEvent;
 import org.terasology.structureTemplates.util.ListUtil;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 import org.terasology.world.BlockEntityRegistry;
+import org.terasology.world.WorldProvider;
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.BlockManager;
 import org.terasology.world.block.family.BlockFamily;
 import org.terasology.world.block.items.BlockItemComponent;
 import org.terasology.world.block.items.BlockItemFactory;
+import org.terasology.world.chunks.event.OnChunkLoaded;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * System to power the {@link AddItemsToChestComponent}
+ *
+ * The items of a spawned chest get stored in an {@link UnfilledChestComponent} of the chest right away, so that they
+ * survive saving. The chests get then filled over multiple updates, so that structures with lots of chests don't make
+ * a single update take long.
+ *
+ * Chests in chunks that are not loaded yet get stored per chunk in {@link PendingChestFillsComponent}s, till the
+ * chunk and with it the chest block got loaded.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
-public class AddItemsToChestSystem extends BaseComponentSystem {
-    private static final Logger logger = LoggerFactory.getLogger(ScheduledStructureSpawnSystem.class);
+public class AddItemsToChestSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final Logger logger = LoggerFactory.getLogger(AddItemsToChestSystem.class);
+    private static final int MAX_ITEMS_PER_UPDATE = 64;
 
     @In
     private BlockEntityRegistry blockEntityRegistry;
@@ -65,6 +88,31 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
     @In
     private BlockManager blockManager;
 
+    @In
+    private WorldProvider worldProvider;
+
+    private BlockItemFactory blockFactory;
+    private Deque<EntityRef> chestsToFill = new ArrayDeque<>();
+    private Map<Vector3i, EntityRef> pendingChestFillsByChunk = new HashMap<>();
+
+    @Override
+    public void initialise() {
+        blockFactory = new BlockItemFactory(entityManager);
+    }
+
+    @Override
+    public void postBegin() {
+        pendingChestFillsByChunk.clear();
+        for (EntityRef entity : entityManager.getEntitiesWith(PendingChestFillsComponent.class)) {
+            PendingChestFillsComponent component = entity.getComponent(PendingChestFillsComponent.class);
+            if (component.chunkPosition == null || pendingChestFillsByChunk.containsKey(component.chunkPosition)) {
+                entity.destroy();
+                continue;
+            }
+            pendingChestFillsByChunk.put(component.chunkPosition, entity);
+        }
+    }
+
     @ReceiveEvent
     public void onSpawnStructureEvent(StructureBlocksSpawnedEvent event, EntityRef entity,
                                       AddItemsToChestComponent component) {
@@ -81,18 +129,132 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
     }
 
     private void addItemsToChest(AddItemsToChestComponent component, BlockRegionTransform transformation) {
-        BlockItemFactory blockFactory = new BlockItemFactory(entityManager);
-
         for (AddItemsToChestComponent.ChestToFill chestToFill: component.chestsToFill) {
             Vector3i absolutePosition = transformation.transformVector3i(chestToFill.position);
-            EntityRef chest = blockEntityRegistry.getBlockEntityAt(absolutePosition);
-            for (AddItemsToChestComponent.Item item: chestToFill.items) {
-                addItemToChest(chest, item, blockFactory);
+            if (worldProvider.isBlockRelevant(absolutePosition)) {
+                storeItemsInChest(absolutePosition, chestToFill.items, component.fillOnFirstOpen);
+            } else {
+                AddItemsToChestComponent.ChestToFill absoluteChestToFill = new AddItemsToChestComponent.ChestToFill();
+                absoluteChestToFill.position = absolutePosition;
+                absoluteChestToFill.items = chestToFill.items;
+                addPendingChestFill(absoluteChestToFill, component.fillOnFirstOpen);
+            }
+        }
+    }
+
+    private void storeItemsInChest(Vector3i position, List<AddItemsToChestComponent.Item> items,
+                                   boolean fillOnFirstOpen) {
+        EntityRef chest = blockEntityRegistry.getBlockEntityAt(position);
+        UnfilledChestComponent unfilledChestComponent = chest.getComponent(UnfilledChestComponent.class);
+        if (unfilledChestComponent == null) {
+            unfilledChestComponent = new UnfilledChestComponent();
+        }
+        unfilledChestComponent.items.addAll(items);
+        unfilledChestComponent.fillOnFirstOpen = fillOnFirstOpen;
+        chest.addOrSaveComponent(unfilledChestComponent);
+    }
+
+    private void addPendingChestFill(AddItemsToChestComponent.ChestToFill chestToFill, boolean fillOnFirstOpen) {
+        Vector3i chunkPosition = ChunkMath.calcChunkPos(chestToFill.position);
+        EntityRef entity = pendingChestFillsByChunk.getOrDefault(chunkPosition, EntityRef.NULL);
+        PendingChestFillsComponent component = entity.getComponent(PendingChestFillsComponent.class);
+        boolean newEntity = component == null;
+        if (newEntity) {
+            component = new PendingChestFillsComponent();
+            component.chunkPosition = chunkPosition;
+        }
+        if (fillOnFirstOpen) {
+            component.chestsToFillOnFirstOpen.add(chestToFill);
+        } else {
+            component.chestsToFill.add(chestToFill);
+        }
+        if (newEntity) {
+            EntityBuilder entityBuilder = entityManager.newBuilder();
+            entityBuilder.setPersistent(true);
+            entityBuilder.addComponent(component);
+            pendingChestFillsByChunk.put(chunkPosition, entityBuilder.build());
+        } else {
+            entity.saveComponent(component);
+        }
+    }
+
+    /**
+     * The structure blocks of the chunk got placed at a higher priority already.
+     */
+    @ReceiveEvent
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        EntityRef entity = pendingChestFillsByChunk.remove(event.getChunkPos());
+        if (entity == null) {
+            return;
+        }
+        PendingChestFillsComponent component = entity.getComponent(PendingChestFillsComponent.class);
+        entity.destroy();
+        if (component == null) {
+            return;
+        }
+        for (AddItemsToChestComponent.ChestToFill chestToFill : component.chestsToFill) {
+            storeItemsInChest(chestToFill.position, chestToFill.items, false);
+        }
+        for (AddItemsToChestComponent.ChestToFill chestToFill : component.chestsToFillOnFirstOpen) {
+            storeItemsInChest(chestToFill.position, chestToFill.items, true);
+        }
+    }
+
+    /**
+     * Gets also called for chests that got loaded with items that did not get added yet.
+     */
+    @ReceiveEvent
+    public void onUnfilledChestActivated(OnActivatedComponent event, EntityRef chest,
+                                         UnfilledChestComponent component) {
+        if (!component.fillOnFirstOpen) {
+            chestsToFill.add(chest);
+        }
+    }
+
+    @Override
+    public void update(float delta) {
+        int itemBudget = MAX_ITEMS_PER_UPDATE;
+        while (itemBudget > 0 && !chestsToFill.isEmpty()) {
+            EntityRef chest = chestsToFill.peek();
+            UnfilledChestComponent component = chest.getComponent(UnfilledChestComponent.class);
+            if (component == null || component.fillOnFirstOpen) {
+                // chest got unloaded, opened or destroyed in the meantime
+                chestsToFill.poll();
+                continue;
             }
+            int itemCount = Math.min(itemBudget, component.items.size());
+            for (AddItemsToChestComponent.Item item : component.items.subList(0, itemCount)) {
+                addItemToChest(chest, item);
+            }
+            itemBudget -= itemCount;
+            if (itemCount == component.items.size()) {
+                chest.removeComponent(UnfilledChestComponent.class);
+                chestsToFill.poll();
+            } else {
+                component.items = new ArrayList<>(component.items.subList(itemCount, component.items.size()));
+                chest.saveComponent(component);
+            }
+        }
+    }
+
+    @ReceiveEvent(priority = EventPriority.PRIORITY_HIGH)
+    public void onActivateUnfilledChest(ActivateEvent event, EntityRef chest, UnfilledChestComponent component) {
+        fillUnfilledChest(chest, component);
+    }
+
+    @ReceiveEvent(priority = EventPriority.PRIORITY_HIGH)
+    public void onDestroyUnfilledChest(DoDestroyEvent event, EntityRef chest, UnfilledChestComponent component) {
+        fillUnfilledChest(chest, component);
+    }
+
+    private void fillUnfilledChest(EntityRef chest, UnfilledChestComponent component) {
+        chest.removeComponent(UnfilledChestComponent.class);
+        for (AddItemsToChestComponent.Item item : component.items) {
+            addItemToChest(chest, item);
         }
     }
 
-    private void addItemToChest(EntityRef chest, AddItemsToChestComponent.Item item, BlockItemFactory blockFactory) {
+    private void addItemToChest(EntityRef chest, AddItemsToChestComponent.Item item) {
         EntityRef itemEntity;
         if (item.itemPrefab != null) {
             itemEntity = entityManager.create(item.itemPrefab);
@@ -109,7 +271,6 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
         }
     }
 
-
     @ReceiveEvent
     public void onBuildTemplateWithScheduledStructurePlacment(BuildStructureTemplateEntityEvent event, EntityRef entity) {
         BlockRegionTransform transformToRelative = event.getTransformToRelative();
@@ -119,10 +280,26 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
         if (chestsToFill.size() > 0) {
             AddItemsToChestComponent addItemsComponent = new AddItemsToChestComponent();
             addItemsComponent.chestsToFill = chestsToFill;
+            addItemsComponent.fillOnFirstOpen = containsChestToFillOnFirstOpen(event, blockFamily);
             event.getTemplateEntity().addOrSaveComponent(addItemsComponent);
         }
     }
 
+    /**
+     * Structures that got spawned with {@link AddItemsToChestComponent#fillOnFirstOpen} keep that behavior when a
+     * template gets created from them again.
+     */
+    private boolean containsChestToFillOnFirstOpen(BuildStructureTemplateEntityEvent event, BlockFamily blockFamily) {
+        for (Vector3i position: event.findAbsolutePositionsOf(blockFamily)) {
+            EntityRef blockEntity = blockEntityRegistry.getBlockEntityAt(position);
+            UnfilledChestComponent unfilledChestComponent = blockEntity.getComponent(UnfilledChestComponent.class);
+            if (unfilledChestComponent != null && unfilledChestComponent.fillOnFirstOpen) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private List<AddItemsToChestComponent.ChestToFill> describeChestContent(BuildStructureTemplateEntityEvent event, BlockFamily blockFamily) {
         List<AddItemsToChestComponent.ChestToFill> chestsToFill = new ArrayList<>();
         for (Vector3i position: event.findAbsolutePositionsOf(blockFamily)) {
@@ -150,6 +327,10 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
                 itemsToAdd.add(optionalItem.get());
             }
         }
+        UnfilledChestComponent unfilledChestComponent = blockEntity.getComponent(UnfilledChestComponent.class);
+        if (unfilledChestComponent != null) {
+            itemsToAdd.addAll(unfilledChestComponent.items);
+        }
         return itemsToAdd;
     }
 
@@ -209,7 +390,12 @@ public class AddItemsToChestSystem extends BaseComponentSystem {
                 sb.append("            },\n");
             }
         });
-        sb.append("        ]\n");
+        if (component.fillOnFirstOpen) {
+            sb.append("        ],\n");
+            sb.append("        \"fillOnFirstOpen\": true\n");
+        } else {
+            sb.append("        ]\n");
+        }
         sb.append("    }");
         event.addJsonForComponent(sb.toString(), AddItemsToChestComponent.class);
     }
@@ -16,6 +16,7 @@
 package org.terasology.structureTemplates.internal.systems;
 
 import org.terasology.assets.ResourceUrn;
+import org.terasology.entitySystem.Component;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.event.ReceiveEvent;
@@ -24,7 +25,11 @@ import org.terasology.entitySystem.prefab.PrefabManager;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.logic.common.DisplayNameComponent;
+import org.terasology.math.ChunkMath;
 import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
 import org.terasology.registry.Share;
 import org.terasology.structureTemplates.components.BlockPredicateComponent;
@@ -35,13 +40,22 @@ import org.terasology.structureTemplates.events.CheckSpawnConditionEvent;
 import org.terasology.structureTemplates.events.GetBlockPredicateEvent;
 import org.terasology.structureTemplates.interfaces.BlockRegionChecker;
 import org.terasology.structureTemplates.interfaces.BlockPredicateProvider;
+import org.terasology.structureTemplates.util.BlockRegionConditionCache;
+import org.terasology.structureTemplates.util.ChunkBlockSummary;
+import org.terasology.structureTemplates.util.PlannedBlocks;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
+import org.terasology.world.OnChangedBlock;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.ChunkConstants;
+import org.terasology.world.chunks.event.BeforeChunkUnload;
+import org.terasology.world.chunks.event.OnChunkLoaded;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Predicate;
 
@@ -50,12 +64,18 @@ import java.util.function.Predicate;
  *
  * Includes also the event handling for {@link RequiredBlockPropertiesComponent}.
  *
+ * The results of the checks done for {@link CheckBlockRegionConditionComponent} get cached till the blocks of the
+ * checked region change, so that retries of the same placement are cheap.
+ *
+ * Large regions that get checked against a condition that is only described by a
+ * {@link RequiredBlockPropertiesComponent} get checked with the help of {@link ChunkBlockSummary}s instead of
+ * testing every single block.
  */
 @Share({BlockRegionChecker.class, BlockPredicateProvider.class})
 @RegisterSystem(RegisterMode.ALWAYS)
 public class BlockRegionConditionSystem extends BaseComponentSystem implements BlockRegionChecker,
         BlockPredicateProvider {
-
+    private static final int MAX_CHUNK_SUMMARIES = 32;
 
     @In
     private WorldProvider worldProvider;
@@ -71,19 +91,26 @@ public class BlockRegionConditionSystem extends BaseComponentSystem implements B
 
     private Map<ResourceUrn, EntityRef> prefabUrnToEntityMap = new HashMap<>();
 
+    private BlockRegionConditionCache conditionResultCache = new BlockRegionConditionCache();
+
+    private Map<Vector3i, ChunkBlockSummary> chunkSummaries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private Map<ResourceUrn, Boolean> conditionUrnToSummarizableMap = new HashMap<>();
+
     @Override
     public boolean allBlocksMatch(Region3i untransformedRegion, BlockRegionTransform transform, Predicate<Block> condition) {
         Region3i region = transform.transformRegion(untransformedRegion);
         return allBlocksInAABBMatch(region.minX(), region.maxX(), region.minY(), region.maxY(), region.minZ(),
-                region.maxZ(), condition, transform);
+                region.maxZ(), condition, transform, worldProvider::getBlock);
     }
 
     private boolean allBlocksInAABBMatch(int minX, int maxX, int minY, int maxY, int minZ, int maxZ,
-                                         Predicate<Block> condition,  BlockRegionTransform transform) {
+                                         Predicate<Block> condition,  BlockRegionTransform transform,
+                                         ChunkBlockSummary.BlockLookup blockLookup) {
         for (int x = minX; x <= maxX; x++) {
             for (int y = minY; y <= maxY; y++) {
                 for (int z = minZ; z <= maxZ; z++) {
-                    Block untransformedBlock = worldProvider.getBlock(x ,y, z);
+                    Block untransformedBlock = blockLookup.getBlock(x ,y, z);
                     Block transformedBlock = transform.transformBlock(untransformedBlock);
                     if (!condition.test(transformedBlock)) {
                         return false;
@@ -114,7 +141,8 @@ public class BlockRegionConditionSystem extends BaseComponentSystem implements B
                 return;
             }
             Region3i relativeRegion = checkToPerform.region;
-            if (!allBlocksMatch(relativeRegion,  event.getBlockRegionTransform(), conditionPrefab)) {
+            if (!allBlocksMatchCached(relativeRegion, event.getBlockRegionTransform(), conditionPrefab,
+                    event.getPlannedBlocks())) {
                 event.setPreventSpawn(true);
                 Region3i absoluteRegion = event.getBlockRegionTransform().transformRegion(relativeRegion);
                 event.setSpawnPreventingRegion(absoluteRegion);
@@ -125,11 +153,183 @@ public class BlockRegionConditionSystem extends BaseComponentSystem implements B
         }
     }
 
+    /**
+     * Regions that might contain planned blocks get checked against the world with the planned blocks on top. Those
+     * results are not cached, as they are not about the world itself.
+     */
+    private boolean allBlocksMatchCached(Region3i untransformedRegion, BlockRegionTransform transform,
+                                         Prefab conditionPrefab, PlannedBlocks plannedBlocks) {
+        Region3i absoluteRegion = transform.transformRegion(untransformedRegion);
+        if (plannedBlocks != null && plannedBlocks.mightIntersect(absoluteRegion)) {
+            return allBlocksInAABBMatch(absoluteRegion.minX(), absoluteRegion.maxX(), absoluteRegion.minY(),
+                    absoluteRegion.maxY(), absoluteRegion.minZ(), absoluteRegion.maxZ(),
+                    getBlockPredicate(conditionPrefab), transform, (x, y, z) -> {
+                        Block plannedBlock = plannedBlocks.getBlock(x, y, z);
+                        return plannedBlock != null ? plannedBlock : worldProvider.getBlock(x, y, z);
+                    });
+        }
+        // the blocks get rotated before they get tested, so the rotation is part of the key
+        Side rotation = transform.transformSide(Side.FRONT);
+        Boolean cachedResult = conditionResultCache.get(conditionPrefab.getUrn(), absoluteRegion, rotation);
+        if (cachedResult != null) {
+            return cachedResult;
+        }
+        boolean result = allBlocksMatch(untransformedRegion, transform, conditionPrefab);
+        conditionResultCache.put(conditionPrefab.getUrn(), absoluteRegion, rotation, result);
+        return result;
+    }
+
+    @ReceiveEvent
+    public void onChangedBlock(OnChangedBlock event, EntityRef blockEntity) {
+        conditionResultCache.invalidateBlock(event.getBlockPosition());
+        ChunkBlockSummary summary = chunkSummaries.get(ChunkMath.calcChunkPos(event.getBlockPosition()));
+        if (summary != null) {
+            summary.onBlockChanged(event.getBlockPosition(), event.getOldType(), event.getNewType());
+        }
+    }
+
+    @ReceiveEvent
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        conditionResultCache.invalidateChunk(event.getChunkPos());
+        chunkSummaries.remove(event.getChunkPos());
+    }
+
+    @ReceiveEvent
+    public void onBeforeChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        conditionResultCache.invalidateChunk(event.getChunkPos());
+        chunkSummaries.remove(event.getChunkPos());
+    }
+
     public boolean allBlocksMatch(Region3i untransformedRegion, BlockRegionTransform transform, Prefab prefab) {
+        if (isDescribedByBlockPropertiesOnly(prefab)) {
+            Region3i region = transform.transformRegion(untransformedRegion);
+            if (isCheaperWithChunkSummaries(region)) {
+                return allBlocksHaveRequiredProperties(region, prefab);
+            }
+        }
         Predicate<Block> predicate = getBlockPredicate(prefab);
         return allBlocksMatch(untransformedRegion, transform, predicate);
     }
 
+    /**
+     * Creating a summary reads every block of its chunk. So summaries only get used when reading all loaded chunks
+     * that lack one is cheaper than reading the blocks of the region directly.
+     */
+    private boolean isCheaperWithChunkSummaries(Region3i region) {
+        long volume = (long) region.sizeX() * region.sizeY() * region.sizeZ();
+        long blocksToReadForSummaries = 0;
+        Vector3i minChunk = ChunkMath.calcChunkPos(region.min());
+        Vector3i maxChunk = ChunkMath.calcChunkPos(region.max());
+        for (int chunkX = minChunk.x; chunkX <= maxChunk.x; chunkX++) {
+            for (int chunkY = minChunk.y; chunkY <= maxChunk.y; chunkY++) {
+                for (int chunkZ = minChunk.z; chunkZ <= maxChunk.z; chunkZ++) {
+                    boolean loaded = worldProvider.isBlockRelevant(chunkX * ChunkConstants.SIZE_X,
+                            chunkY * ChunkConstants.SIZE_Y, chunkZ * ChunkConstants.SIZE_Z);
+                    if (loaded && !chunkSummaries.containsKey(new Vector3i(chunkX, chunkY, chunkZ))) {
+                        blocksToReadForSummaries += ChunkBlockSummary.getChunkVolume();
+                        if (blocksToReadForSummaries >= volume) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rotating a block does not change the properties checked by {@link RequiredBlockPropertiesComponent}, so the
+     * transformation of the blocks can be ignored here.
+     */
+    private boolean allBlocksHaveRequiredProperties(Region3i region, Prefab conditionPrefab) {
+        RequiredBlockPropertiesComponent requiredProperties = conditionPrefab.getComponent(
+                RequiredBlockPropertiesComponent.class);
+        Vector3i minChunk = ChunkMath.calcChunkPos(region.min());
+        Vector3i maxChunk = ChunkMath.calcChunkPos(region.max());
+        for (int chunkX = minChunk.x; chunkX <= maxChunk.x; chunkX++) {
+            for (int chunkY = minChunk.y; chunkY <= maxChunk.y; chunkY++) {
+                for (int chunkZ = minChunk.z; chunkZ <= maxChunk.z; chunkZ++) {
+                    Vector3i chunkPos = new Vector3i(chunkX, chunkY, chunkZ);
+                    if (!chunkPartHasRequiredProperties(chunkPos, region, conditionPrefab, requiredProperties)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean chunkPartHasRequiredProperties(Vector3i chunkPos, Region3i region, Prefab conditionPrefab,
+                                                   RequiredBlockPropertiesComponent requiredProperties) {
+        int chunkMinX = chunkPos.x * ChunkConstants.SIZE_X;
+        int chunkMinY = chunkPos.y * ChunkConstants.SIZE_Y;
+        int chunkMinZ = chunkPos.z * ChunkConstants.SIZE_Z;
+        int minX = Math.max(region.minX(), chunkMinX);
+        int minY = Math.max(region.minY(), chunkMinY);
+        int minZ = Math.max(region.minZ(), chunkMinZ);
+        int maxX = Math.min(region.maxX(), chunkMinX + ChunkConstants.SIZE_X - 1);
+        int maxY = Math.min(region.maxY(), chunkMinY + ChunkConstants.SIZE_Y - 1);
+        int maxZ = Math.min(region.maxZ(), chunkMinZ + ChunkConstants.SIZE_Z - 1);
+
+        if (!worldProvider.isBlockRelevant(chunkMinX, chunkMinY, chunkMinZ)) {
+            // All blocks of a chunk that is not loaded are the same
+            return getBlockPredicate(conditionPrefab).test(worldProvider.getBlock(minX, minY, minZ));
+        }
+        if (requiredProperties.loaded != null && !requiredProperties.loaded) {
+            return false;
+        }
+
+        ChunkBlockSummary summary = getChunkSummary(chunkPos);
+        int volume = (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (requiredProperties.penetrable != null) {
+            int penetrableCount = summary.countPenetrable(minX, minY, minZ, maxX, maxY, maxZ);
+            if (penetrableCount != (requiredProperties.penetrable ? volume : 0)) {
+                return false;
+            }
+        }
+        if (requiredProperties.liquid != null) {
+            int liquidCount = summary.countLiquid(minX, minY, minZ, maxX, maxY, maxZ);
+            if (liquidCount != (requiredProperties.liquid ? volume : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ChunkBlockSummary getChunkSummary(Vector3i chunkPos) {
+        ChunkBlockSummary summary = chunkSummaries.get(chunkPos);
+        if (summary == null) {
+            summary = ChunkBlockSummary.create(chunkPos, worldProvider::getBlock);
+            chunkSummaries.put(chunkPos, summary);
+            if (chunkSummaries.size() > MAX_CHUNK_SUMMARIES) {
+                Iterator<Vector3i> iterator = chunkSummaries.keySet().iterator();
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * @return true if the predicate of the condition prefab is fully described by its
+     * {@link RequiredBlockPropertiesComponent}. Other components might contribute to the predicate.
+     */
+    private boolean isDescribedByBlockPropertiesOnly(Prefab conditionPrefab) {
+        return conditionUrnToSummarizableMap.computeIfAbsent(conditionPrefab.getUrn(), urn -> {
+            if (!conditionPrefab.hasComponent(RequiredBlockPropertiesComponent.class)) {
+                return false;
+            }
+            for (Component component : conditionPrefab.iterateComponents()) {
+                if (!(component instanceof BlockPredicateComponent
+                        || component instanceof RequiredBlockPropertiesComponent
+                        || component instanceof DisplayNameComponent)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
     @Override
     public Predicate<Block> getBlockPredicate(Prefab conditionPrefab) {
         EntityRef conditionEntity = prefabUrnToEntityMap.get(conditionPrefab.getUrn());
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.internal.systems;
+
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.event.EventPriority;
+import org.terasology.entitySystem.event.ReceiveEvent;
+import org.terasology.entitySystem.systems.BaseComponentSystem;
+import org.terasology.entitySystem.systems.RegisterMode;
+import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.RegionToFill;
+import org.terasology.structureTemplates.events.PlaceBlockRegions;
+import org.terasology.structureTemplates.internal.events.PlaceBlocksOfBlockRegions;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.entity.placement.PlaceBlocks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Places the blocks of a {@link PlaceBlockRegions} event when no other system consumed it.
+ *
+ * The blocks get placed via a {@link PlaceBlocks} event, so that listeners of that event can still prevent it.
+ * That event describes every single block, so only the handlers of {@link PlaceBlockRegions} work with boxes. The
+ * expansion can't be skipped, as there is no way to tell whether a listener of {@link PlaceBlocks} exists.
+ */
+@RegisterSystem(RegisterMode.AUTHORITY)
+public class PlaceBlockRegionsServerSystem extends BaseComponentSystem {
+
+    @ReceiveEvent(priority = EventPriority.PRIORITY_TRIVIAL)
+    public void onPlaceBlockRegions(PlaceBlockRegions event, EntityRef world) {
+        Map<Vector3i, Block> blocks = new HashMap<>();
+        for (RegionToFill regionToFill : event.getRegions()) {
+            for (Vector3i position : regionToFill.region) {
+                blocks.put(new Vector3i(position), regionToFill.blockType);
+            }
+        }
+        world.send(new PlaceBlocksOfBlockRegions(blocks, event.getInstigator()));
+    }
+}
@@ -19,6 +19,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.entitySystem.event.EventPriority;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
@@ -31,10 +34,17 @@ import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.ProtectedRegionsComponent;
 import org.terasology.structureTemplates.internal.components.NoInteractionWhenProtected;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent.ProtectedRegion;
+import org.terasology.structureTemplates.util.ProtectedRegionRegistry;
 import org.terasology.structureTemplates.util.ProtectedRegionUtility;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * System to make {@link ProtectedRegionsComponent} work.
@@ -47,7 +57,56 @@ public class ProtectedRegionClientSystem extends BaseComponentSystem {
     @In
     private EntityManager entityManager;
 
+    private ProtectedRegionRegistry registry = new ProtectedRegionRegistry();
+    private Map<EntityRef, List<ProtectedRegion>> regionsOfSectorEntities = new HashMap<>();
+
+    @ReceiveEvent
+    public void onRegistryActivated(OnActivatedComponent event, EntityRef entity,
+                                    ProtectedRegionRegistryComponent component) {
+        updateRegionsOfSector(entity, component);
+    }
+
+    @ReceiveEvent
+    public void onRegistryChanged(OnChangedComponent event, EntityRef entity,
+                                  ProtectedRegionRegistryComponent component) {
+        updateRegionsOfSector(entity, component);
+    }
+
+    @ReceiveEvent
+    public void onRegistryDeactivated(BeforeDeactivateComponent event, EntityRef entity,
+                                      ProtectedRegionRegistryComponent component) {
+        List<ProtectedRegion> previousRegions = regionsOfSectorEntities.remove(entity);
+        if (previousRegions != null) {
+            registry.removeAll(previousRegions);
+        }
+    }
+
+    /**
+     * Only the regions of the changed sector get replaced. The registry gets copies of the regions, so that it does
+     * not depend on whether the replicated component gets updated in place.
+     */
+    private void updateRegionsOfSector(EntityRef entity, ProtectedRegionRegistryComponent component) {
+        List<ProtectedRegion> previousRegions = regionsOfSectorEntities.get(entity);
+        if (previousRegions != null) {
+            registry.removeAll(previousRegions);
+        }
+        List<ProtectedRegion> regions = new ArrayList<>(component.protectedRegions.size());
+        for (ProtectedRegion protectedRegion : component.protectedRegions) {
+            ProtectedRegion copy = new ProtectedRegion();
+            copy.region = protectedRegion.region;
+            copy.expiryTime = protectedRegion.expiryTime;
+            regions.add(copy);
+        }
+        registry.addAll(regions);
+        regionsOfSectorEntities.put(entity, regions);
+    }
+
     private boolean isInProtectedRegion(Collection<Vector3i> positions) {
+        for (Vector3i position : positions) {
+            if (registry.isProtected(position)) {
+                return true;
+            }
+        }
         for (EntityRef regionEntity : entityManager.getEntitiesWith(ProtectedRegionsComponent.class)) {
             if (ProtectedRegionUtility.isInProtectedRegion(positions, regionEntity)) {
                 return true;
@@ -18,6 +18,7 @@ package org.terasology.structureTemplates.internal.systems;
 import com.google.common.collect.Lists;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.engine.Time;
 import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
@@ -26,40 +27,141 @@ import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.logic.characters.events.ActivationRequestDenied;
 import org.terasology.logic.characters.events.AttackEvent;
 import org.terasology.logic.common.ActivateEvent;
-import org.terasology.logic.common.lifespan.LifespanComponent;
 import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.ChunkMath;
 import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.network.ClientComponent;
+import org.terasology.network.NetworkComponent;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.ProtectRegionsForAFewHoursComponent;
 import org.terasology.structureTemplates.components.ProtectedRegionsComponent;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.RegionToFill;
+import org.terasology.structureTemplates.events.PlaceBlockRegions;
 import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
 import org.terasology.structureTemplates.internal.components.NoInteractionWhenProtected;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent.ProtectedRegion;
+import org.terasology.structureTemplates.internal.events.PlaceBlocksOfBlockRegions;
+import org.terasology.structureTemplates.util.ProtectedRegionRegistry;
 import org.terasology.structureTemplates.util.ProtectedRegionUtility;
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.entity.placement.PlaceBlocks;
 import org.terasology.world.block.regions.BlockRegionComponent;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * System to make {@link ProtectedRegionsComponent} work.
+ *
+ * Time limited protections of spawned structures get stored in {@link ProtectedRegionRegistryComponent}s, one
+ * entity per sector of the world. Expired protections get removed from them once per second.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
-public class ProtectedRegionServerSystem extends BaseComponentSystem {
+public class ProtectedRegionServerSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
 
     private static final Logger logger = LoggerFactory.getLogger(ProtectedRegionServerSystem.class);
+    private static final float SECONDS_BETWEEN_EXPIRY_CHECKS = 1f;
+    private static final int SECTOR_SIZE_IN_CHUNKS = 8;
 
     @In
     private EntityManager entityManager;
 
+    @In
+    private Time time;
+
+    private ProtectedRegionRegistry registry = new ProtectedRegionRegistry();
+    private Map<Vector3i, EntityRef> sectorEntities = new HashMap<>();
+    private float secondsTillExpiryCheck;
+
+    @Override
+    public void postBegin() {
+        registry.clear();
+        sectorEntities.clear();
+        for (EntityRef entity : entityManager.getEntitiesWith(ProtectedRegionRegistryComponent.class)) {
+            ProtectedRegionRegistryComponent component = entity.getComponent(ProtectedRegionRegistryComponent.class);
+            if (component.sectorPosition == null || sectorEntities.containsKey(component.sectorPosition)) {
+                logger.warn("Removing protected regions without valid sector");
+                entity.destroy();
+                continue;
+            }
+            sectorEntities.put(component.sectorPosition, entity);
+            registry.addAll(component.protectedRegions);
+        }
+    }
+
+    @Override
+    public void update(float delta) {
+        if (registry.isEmpty()) {
+            return;
+        }
+        secondsTillExpiryCheck -= delta;
+        if (secondsTillExpiryCheck > 0) {
+            return;
+        }
+        secondsTillExpiryCheck = SECONDS_BETWEEN_EXPIRY_CHECKS;
+        long gameTime = time.getGameTimeInMs();
+        Set<Vector3i> changedSectors = new HashSet<>();
+        for (ProtectedRegion expiredRegion : registry.removeExpired(gameTime)) {
+            changedSectors.add(getSectorPosition(expiredRegion.region));
+        }
+        for (Vector3i sectorPosition : changedSectors) {
+            EntityRef sectorEntity = sectorEntities.getOrDefault(sectorPosition, EntityRef.NULL);
+            ProtectedRegionRegistryComponent component = sectorEntity.getComponent(
+                    ProtectedRegionRegistryComponent.class);
+            if (component == null) {
+                sectorEntities.remove(sectorPosition);
+                continue;
+            }
+            component.protectedRegions.removeIf(protectedRegion -> protectedRegion.expiryTime <= gameTime);
+            if (component.protectedRegions.isEmpty()) {
+                sectorEntities.remove(sectorPosition);
+                sectorEntity.destroy();
+            } else {
+                sectorEntity.saveComponent(component);
+            }
+        }
+    }
+
+    private void addToSector(Vector3i sectorPosition, List<ProtectedRegion> protectedRegions) {
+        EntityRef sectorEntity = sectorEntities.get(sectorPosition);
+        ProtectedRegionRegistryComponent component = sectorEntity != null
+                ? sectorEntity.getComponent(ProtectedRegionRegistryComponent.class) : null;
+        if (component == null) {
+            component = new ProtectedRegionRegistryComponent();
+            component.sectorPosition = sectorPosition;
+            component.protectedRegions.addAll(protectedRegions);
+            EntityBuilder entityBuilder = entityManager.newBuilder();
+            entityBuilder.setPersistent(true);
+            NetworkComponent networkComponent = new NetworkComponent();
+            networkComponent.replicateMode = NetworkComponent.ReplicateMode.ALWAYS;
+            entityBuilder.addComponent(networkComponent);
+            entityBuilder.addComponent(component);
+            sectorEntities.put(sectorPosition, entityBuilder.build());
+        } else {
+            component.protectedRegions.addAll(protectedRegions);
+            sectorEntity.saveComponent(component);
+        }
+    }
+
+    private static Vector3i getSectorPosition(Region3i region) {
+        Vector3i chunkPos = ChunkMath.calcChunkPos(region.min());
+        return new Vector3i(Math.floorDiv(chunkPos.x, SECTOR_SIZE_IN_CHUNKS), 0,
+                Math.floorDiv(chunkPos.z, SECTOR_SIZE_IN_CHUNKS));
+    }
+
     @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
     public void onAttackBlock(AttackEvent event, EntityRef targetEntity, BlockComponent blockComponent) {
         Vector3i pos = blockComponent.getPosition();
@@ -71,17 +173,17 @@ public class ProtectedRegionServerSystem extends BaseComponentSystem {
 
     @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
     public void onAttackBlockRegion(AttackEvent event, EntityRef targetEntity, BlockRegionComponent blockRegionComponent) {
-        List<Vector3i> positions = Lists.newArrayList();
-        for (Vector3i pos: blockRegionComponent.region) {
-            positions.add(pos);
-        }
-        
-        if (isInProtectedRegion(positions)) {
+        if (isAnyRegionProtected(Collections.singleton(blockRegionComponent.region))) {
             event.consume();
         }
     }
 
     private boolean isInProtectedRegion(Collection<Vector3i> positions) {
+        for (Vector3i position : positions) {
+            if (registry.isProtected(position)) {
+                return true;
+            }
+        }
         for (EntityRef regionEntity : entityManager.getEntitiesWith(ProtectedRegionsComponent.class)) {
             if (ProtectedRegionUtility.isInProtectedRegion(positions, regionEntity)) {
                 return true;
@@ -90,9 +192,27 @@ public class ProtectedRegionServerSystem extends BaseComponentSystem {
         return false;
     }
 
+    private boolean isAnyRegionProtected(Collection<Region3i> regions) {
+        for (Region3i region : regions) {
+            if (registry.intersectsProtectedRegion(region)) {
+                return true;
+            }
+        }
+        for (EntityRef regionEntity : entityManager.getEntitiesWith(ProtectedRegionsComponent.class)) {
+            if (ProtectedRegionUtility.isAnyRegionInProtectedRegion(regions, regionEntity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 
     @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
     public void onPlaceBlocks(PlaceBlocks event, EntityRef entity) {
+        if (event instanceof PlaceBlocksOfBlockRegions) {
+            // got checked already as PlaceBlockRegions event
+            return;
+        }
         EntityRef instigator = event.getInstigator();
         EntityRef player = instigator.getOwner();
         if (!player.hasComponent(ClientComponent.class)) {
@@ -103,6 +223,22 @@ public class ProtectedRegionServerSystem extends BaseComponentSystem {
         }
     }
 
+    @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
+    public void onPlaceBlockRegions(PlaceBlockRegions event, EntityRef entity) {
+        EntityRef instigator = event.getInstigator();
+        EntityRef player = instigator.getOwner();
+        if (!player.hasComponent(ClientComponent.class)) {
+            return;
+        }
+        List<Region3i> regions = Lists.newArrayList();
+        for (RegionToFill regionToFill : event.getRegions()) {
+            regions.add(regionToFill.region);
+        }
+        if (isAnyRegionProtected(regions)) {
+            event.consume();
+        }
+    }
+
     @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL, components = {NoInteractionWhenProtected.class})
     public void onActivation(ActivateEvent event, EntityRef target) {
         Vector3f position = event.getTarget().getComponent(LocationComponent.class).getWorldPosition();
@@ -116,21 +252,19 @@ public class ProtectedRegionServerSystem extends BaseComponentSystem {
     @ReceiveEvent(priority = EventPriority.PRIORITY_LOW)
     public void onStructureBlocksSpawnedEvent(StructureBlocksSpawnedEvent event, EntityRef entity,
                                               ProtectRegionsForAFewHoursComponent component) {
-        EntityBuilder entityBuilder = entityManager.newBuilder();
-        entityBuilder.setPersistent(true);
-        entityBuilder.addOrSaveComponent(component);
-        List<Region3i> absoluteRegions = Lists.newArrayList();
+        long expiryTime = time.getGameTimeInMs() + (long) (component.hoursToProtect * 3600 * 1000);
+        Map<Vector3i, List<ProtectedRegion>> regionsBySector = new HashMap<>();
         for (Region3i relativeRegion : component.regions) {
-            absoluteRegions.add(event.getTransformation().transformRegion(relativeRegion));
+            ProtectedRegion protectedRegion = new ProtectedRegion();
+            protectedRegion.region = event.getTransformation().transformRegion(relativeRegion);
+            protectedRegion.expiryTime = expiryTime;
+            registry.add(protectedRegion);
+            regionsBySector.computeIfAbsent(getSectorPosition(protectedRegion.region), pos -> new ArrayList<>())
+                    .add(protectedRegion);
+        }
+        for (Map.Entry<Vector3i, List<ProtectedRegion>> entry : regionsBySector.entrySet()) {
+            addToSector(entry.getKey(), entry.getValue());
         }
-        ProtectedRegionsComponent protectedRegionsComponent = new ProtectedRegionsComponent();
-        protectedRegionsComponent.regions = absoluteRegions;
-        entityBuilder.addOrSaveComponent(protectedRegionsComponent);
-
-        LifespanComponent lifespanComponent = new LifespanComponent();
-        lifespanComponent.lifespan = component.hoursToProtect * 3600;
-        entityBuilder.addOrSaveComponent(lifespanComponent);
-        entityBuilder.build();
     }
 
 }
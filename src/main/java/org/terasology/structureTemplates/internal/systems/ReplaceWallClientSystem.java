@@ -15,7 +15,6 @@
  */
 package org.terasology.structureTemplates.internal.systems;
 
-import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
@@ -36,31 +35,30 @@ import org.terasology.logic.inventory.events.InventorySlotChangedEvent;
 import org.terasology.logic.location.LocationComponent;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.logic.players.PlayerTargetChangedEvent;
-import org.terasology.math.Direction;
 import org.terasology.math.Region3i;
 import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
-import org.terasology.rendering.logic.RegionOutlineComponent;
 import org.terasology.rendering.nui.Color;
 import org.terasology.rendering.nui.NUIManager;
 import org.terasology.structureTemplates.components.SpawnStructureActionComponent;
 import org.terasology.structureTemplates.components.WallPreviewComponent;
 import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent;
+import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent.ReplacementType;
 import org.terasology.structureTemplates.internal.events.StructureSpawnFailedEvent;
 import org.terasology.structureTemplates.internal.ui.StructurePlacementFailureScreen;
 import org.terasology.structureTemplates.util.RegionMergeUtil;
+import org.terasology.structureTemplates.util.RegionOutlinePool;
+import org.terasology.structureTemplates.util.WallFloodFill;
+import org.terasology.world.OnChangedBlock;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.BlockComponent;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Shows a preview of the wall while the WallAdder items gets hold by the player.
@@ -69,7 +67,6 @@ import java.util.Set;
 public class ReplaceWallClientSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
 
     public static final String STRUCTURE_PLACEMENT_FAILURE_OVERLAY = "StructureTemplates:StructurePlacementFailureScreen";
-    private static final int MAX_BLOCKS_PER_WALL = 100;
 
     @In
     private LocalPlayer locatPlayer;
@@ -89,13 +86,27 @@ public class ReplaceWallClientSystem extends BaseComponentSystem implements Upda
     @In
     private WorldProvider worldProvider;
 
-    private List<EntityRef> regionOutlineEntities = new ArrayList<>();
+    private RegionOutlinePool regionOutlinePool;
+
+    /**
+     * The last computed wall. It stays valid till a block in {@link #cachedWallReadRegion} changes.
+     */
+    private List<Region3i> cachedWallRegions;
+    private Region3i cachedWallReadRegion;
+    private Vector3i cachedWallStart;
+    private Side cachedWallDirection;
+    private ReplacementType cachedWallReplacementType;
 
     private Vector3i spawnPosition;
 
     private Side directionPlayerLooksAt;
 
 
+    @Override
+    public void initialise() {
+        regionOutlinePool = new RegionOutlinePool(entityManager);
+    }
+
     @Override
     public void update(float delta) {
         LocationComponent locationComponent = locatPlayer.getCharacterEntity().getComponent(LocationComponent.class);
@@ -170,32 +181,13 @@ public class ReplaceWallClientSystem extends BaseComponentSystem implements Upda
             wallPreviewComponent = new WallPreviewComponent();
         }
         wallPreviewComponent.wallRegions = regions;
+        wallPreviewComponent.startPosition = spawnPosition != null ? new Vector3i(spawnPosition) : null;
+        wallPreviewComponent.facing = directionPlayerLooksAt;
         item.addOrSaveComponent(wallPreviewComponent);
     }
 
     void replaceRegionOutlineEntitiesWith(Collection<Region3i> regionsToDraw) {
-        for (EntityRef entity : regionOutlineEntities) {
-            if (entity.exists()) {
-                entity.destroy();
-            }
-        }
-        regionOutlineEntities.clear();
-        for (Region3i region : regionsToDraw) {
-            EntityRef entity = createOutlineEntity(region, Color.GREEN);
-            regionOutlineEntities.add(entity);
-        }
-    }
-
-    // TODO reuse existing method
-    private EntityRef createOutlineEntity(Region3i region, Color color) {
-        EntityBuilder entityBuilder = entityManager.newBuilder();
-        entityBuilder.setPersistent(false);
-        RegionOutlineComponent regionOutlineComponent = new RegionOutlineComponent();
-        regionOutlineComponent.corner1 = new Vector3i(region.min());
-        regionOutlineComponent.corner2 = new Vector3i(region.max());
-        regionOutlineComponent.color = color;
-        entityBuilder.addComponent(regionOutlineComponent);
-        return entityBuilder.build();
+        regionOutlinePool.showRegions(regionsToDraw, Color.GREEN);
     }
 
     private EntityRef getSelectedItem() {
@@ -217,121 +209,34 @@ public class ReplaceWallClientSystem extends BaseComponentSystem implements Upda
 
 
     private List<Region3i> getRegionsOfWall(EntityRef item) {
-        Set<Vector3i> positionsToAdd = getWallPositions(item);
-        return RegionMergeUtil.mergePositionsIntoRegions(positionsToAdd);
-    }
-
-    private Vector3i getAbsoluteOffset(Side side, Direction relativeDirection) {
-        return getAbsoulteDirection(side, relativeDirection).toSide().getVector3i();
-    }
-
-    private Direction getAbsoulteDirection(Side side, Direction relativeDirection) {
-        switch(side) {
-            case FRONT:
-                return relativeDirection.toSide().yawClockwise(2).toDirection();
-            case LEFT:
-                return relativeDirection.toSide().yawClockwise(3).toDirection();
-            case BACK:
-                return relativeDirection.toSide().yawClockwise(0).toDirection();
-            case RIGHT:
-                return relativeDirection.toSide().yawClockwise(1).toDirection();
-            case TOP:
-                return relativeDirection.toSide().pitchClockwise(3).toDirection();
-            case BOTTOM:
-                return relativeDirection.toSide().pitchClockwise(1).toDirection();
-        }
-        throw new RuntimeException("Unsupported side " + side);
-    }
-
-    private Set<Vector3i> getWallPositions(EntityRef item) {
         ReplaceWallItemComponent replaceWallItemComponent = item.getComponent(ReplaceWallItemComponent.class);
-        if (replaceWallItemComponent == null) {
-            return Collections.emptySet();
+        if (replaceWallItemComponent == null || spawnPosition == null || directionPlayerLooksAt == null) {
+            return Collections.emptyList();
         }
-
-        if (spawnPosition == null) {
-            return Collections.emptySet();
-        }
-
-        if (directionPlayerLooksAt == null) {
-            return Collections.emptySet();
-        }
-
-        Vector3i infrontDirection = getAbsoluteOffset(directionPlayerLooksAt,Direction.BACKWARD);
-        Vector3i leftDirection = getAbsoluteOffset(directionPlayerLooksAt,Direction.LEFT);
-        Vector3i rightDirection = getAbsoluteOffset(directionPlayerLooksAt,Direction.RIGHT);
-        Vector3i upDirection = getAbsoluteOffset(directionPlayerLooksAt,Direction.UP);
-        Vector3i downDirection = getAbsoluteOffset(directionPlayerLooksAt,Direction.DOWN);
-
-        Set<Vector3i> positionsToAdd = new HashSet<>();
-        Set<Vector3i> positionsChecked = new HashSet<>();
-        LinkedList<Vector3i> positionsToCheck = new LinkedList<>();
-        positionsToCheck.add(spawnPosition);
-
-        while (positionsToCheck.size() > 0 && positionsToAdd.size() < MAX_BLOCKS_PER_WALL) {
-            Vector3i wallPosToCheck = positionsToCheck.pollFirst();
-            if (positionsChecked.contains(wallPosToCheck)) {
-                continue;
-            }
-            positionsChecked.add(wallPosToCheck);
-            Vector3i infrontPosToCheck = new Vector3i(wallPosToCheck);
-            infrontPosToCheck.add(infrontDirection);
-            boolean infrontIsPenetratable = worldProvider.getBlock(infrontPosToCheck).isPenetrable();
-            boolean isWall = !worldProvider.getBlock(wallPosToCheck).isPenetrable();
-            boolean isValidWallPosition = infrontIsPenetratable && isWall;
-            if (isValidWallPosition) {
-                addPositionsBadedReplacementType(replaceWallItemComponent, leftDirection, rightDirection, upDirection,
-                        downDirection, positionsToAdd, wallPosToCheck, infrontPosToCheck);
-                positionsToCheck.add(vectorCopyWithOffset(wallPosToCheck, leftDirection));
-                positionsToCheck.add(vectorCopyWithOffset(wallPosToCheck, rightDirection));
-                positionsToCheck.add(vectorCopyWithOffset(wallPosToCheck, upDirection));
-                positionsToCheck.add(vectorCopyWithOffset(wallPosToCheck, downDirection));
-            }
+        ReplacementType replacementType = replaceWallItemComponent.replacementType;
+        boolean cachedWallMatches = cachedWallRegions != null && spawnPosition.equals(cachedWallStart)
+                && directionPlayerLooksAt == cachedWallDirection && replacementType == cachedWallReplacementType;
+        if (!cachedWallMatches) {
+            WallFloodFill.Result result = WallFloodFill.fill(spawnPosition, directionPlayerLooksAt, replacementType,
+                    WallFloodFill.MAX_BLOCKS_PER_WALL, (x, y, z) -> worldProvider.getBlock(x, y, z).isPenetrable());
+            cachedWallRegions = RegionMergeUtil.mergePositionsIntoRegions(result.getPositions());
+            cachedWallReadRegion = result.getReadRegion();
+            cachedWallStart = new Vector3i(spawnPosition);
+            cachedWallDirection = directionPlayerLooksAt;
+            cachedWallReplacementType = replacementType;
         }
-        return positionsToAdd;
+        return new ArrayList<>(cachedWallRegions);
     }
 
-
-    private void addPositionsBadedReplacementType(ReplaceWallItemComponent replaceWallItemComponent,
-                                                  Vector3i leftDirection, Vector3i rightDirection,
-                                                  Vector3i upDirection, Vector3i downDirection,
-                                                  Collection<Vector3i> collectionToExtend,
-                                                  Vector3i wallPos, Vector3i infrontWallPos) {
-        switch(replaceWallItemComponent.replacementType) {
-            case AIR_INFRONT_OF_WALL:
-                collectionToExtend.add(infrontWallPos);
-                break;
-            case WALL:
-                collectionToExtend.add(wallPos);
-                break;
-            case WALL_WITH_BORDER:
-                collectionToExtend.add(wallPos);
-                collectionToExtend.add(vectorCopyWithOffset(wallPos, leftDirection));
-                collectionToExtend.add(vectorCopyWithOffset(wallPos, rightDirection));
-                collectionToExtend.add(vectorCopyWithOffset(wallPos, upDirection));
-                collectionToExtend.add(vectorCopyWithOffset(wallPos, downDirection));
-                collectionToExtend.add(vectorCopyWithOffsets(wallPos, leftDirection, upDirection));
-                collectionToExtend.add(vectorCopyWithOffsets(wallPos, leftDirection, downDirection));
-                collectionToExtend.add(vectorCopyWithOffsets(wallPos, rightDirection, upDirection));
-                collectionToExtend.add(vectorCopyWithOffsets(wallPos, rightDirection, downDirection));
-                break;
+    @ReceiveEvent
+    public void onChangedBlock(OnChangedBlock event, EntityRef blockEntity) {
+        if (cachedWallReadRegion != null && cachedWallReadRegion.encompasses(event.getBlockPosition())) {
+            cachedWallRegions = null;
+            cachedWallReadRegion = null;
+            updateOutlineEntity();
         }
     }
 
-    private Vector3i vectorCopyWithOffset(Vector3i vectorToCopy, Vector3i offset) {
-        Vector3i vector = new Vector3i(vectorToCopy);
-        vector.add(offset);
-        return vector;
-    }
-
-    private Vector3i vectorCopyWithOffsets(Vector3i vectorToCopy, Vector3i offset1, Vector3i offset2) {
-        Vector3i vector = new Vector3i(vectorToCopy);
-        vector.add(offset1);
-        vector.add(offset2);
-        return vector;
-    }
-
-
     @ReceiveEvent
     public void onStructureSpawnFailedEvent(StructureSpawnFailedEvent event, EntityRef entity,
                                             SpawnStructureActionComponent spawnActionComponent) {
@@ -22,26 +22,46 @@ import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.logic.characters.CharacterComponent;
+import org.terasology.logic.location.LocationComponent;
 import org.terasology.math.Region3i;
+import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
-import org.terasology.structureTemplates.components.WallPreviewComponent;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.RegionToFill;
+import org.terasology.structureTemplates.events.PlaceBlockRegions;
 import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent;
+import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent.ReplacementType;
 import org.terasology.structureTemplates.internal.events.ReplaceBlocksRequest;
+import org.terasology.structureTemplates.util.RegionMergeUtil;
+import org.terasology.structureTemplates.util.WallFloodFill;
+import org.terasology.world.OnChangedBlock;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockManager;
-import org.terasology.world.block.entity.placement.PlaceBlocks;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Server system for the item with the component {@link ReplaceWallItemComponent}.
+ *
+ * The wall gets determined by the server with the same flood fill as the client preview. The results are cached
+ * till a block they depend on changes. Requests with a start position out of reach of the item owner get ignored.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class ReplaceWallServerSystem extends BaseComponentSystem {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReplaceWallServerSystem.class);
+    private static final int MAX_CACHED_WALLS = 16;
+    /**
+     * Distance in blocks by which the start may exceed the interaction range, as the range gets measured from the
+     * eyes of the character while its location is at its feet.
+     */
+    private static final float INTERACTION_RANGE_TOLERANCE = 2f;
 
     @In
     private BlockManager blockManager;
@@ -49,22 +69,113 @@ public class ReplaceWallServerSystem extends BaseComponentSystem {
     @In
     private WorldProvider worldProvider;
 
+    private Map<WallKey, CachedWall> cachedWalls = new LinkedHashMap<WallKey, CachedWall>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<WallKey, CachedWall> eldest) {
+            return size() > MAX_CACHED_WALLS;
+        }
+    };
+
     @ReceiveEvent
     public void onReplaceBlocksRequest(ReplaceBlocksRequest event, EntityRef item,
-                                       ReplaceWallItemComponent component, WallPreviewComponent previewComponent) {
-        if (previewComponent.wallRegions == null) {
-            LOGGER.info("Can't replace blocks as requested as the wallRegions field was null");
+                                       ReplaceWallItemComponent component) {
+        Vector3i start = event.getStartPosition();
+        Side facing = event.getFacing();
+        ReplacementType replacementType = component.replacementType;
+        if (start == null || facing == null || replacementType == null) {
+            LOGGER.info("Can't replace blocks as requested as the request was incomplete");
+            return;
+        }
+        if (!isWithinInteractionRange(item.getOwner(), start)) {
+            LOGGER.warn("Ignored request to replace blocks at {} as it is out of reach of the player", start);
+            return;
+        }
+        if (!worldProvider.isBlockRelevant(start)) {
+            LOGGER.info("Can't replace blocks as requested as the start position {} is not loaded", start);
             return;
         }
+        WallKey key = new WallKey(start, facing, replacementType);
+        CachedWall wall = cachedWalls.get(key);
+        if (wall == null) {
+            WallFloodFill.Result result = WallFloodFill.fill(start, facing, replacementType,
+                    WallFloodFill.MAX_BLOCKS_PER_WALL, (x, y, z) -> worldProvider.getBlock(x, y, z).isPenetrable());
+            wall = new CachedWall(RegionMergeUtil.mergePositionsIntoRegions(result.getPositions()),
+                    result.getReadRegion());
+            cachedWalls.put(key, wall);
+        }
+
         Block block = blockManager.getBlock(component.blockUri);
-        Map<Vector3i, Block> map = new HashMap<>();
-        for (Region3i region: previewComponent.wallRegions) {
-            for (Vector3i v:region) {
-                map.put(new Vector3i(v), block);
+        List<RegionToFill> regionsToFill = new ArrayList<>(wall.regions.size());
+        for (Region3i region : wall.regions) {
+            RegionToFill regionToFill = new RegionToFill();
+            regionToFill.region = region;
+            regionToFill.blockType = block;
+            regionsToFill.add(regionToFill);
+        }
+        worldProvider.getWorldEntity().send(new PlaceBlockRegions(regionsToFill, item.getOwner()));
+    }
+
+    private boolean isWithinInteractionRange(EntityRef character, Vector3i position) {
+        LocationComponent locationComponent = character.getComponent(LocationComponent.class);
+        CharacterComponent characterComponent = character.getComponent(CharacterComponent.class);
+        if (locationComponent == null || characterComponent == null) {
+            return false;
+        }
+        float maxDistance = characterComponent.interactionRange + INTERACTION_RANGE_TOLERANCE;
+        return locationComponent.getWorldPosition().distanceSquared(position.toVector3f())
+                <= maxDistance * maxDistance;
+    }
+
+    @ReceiveEvent
+    public void onChangedBlock(OnChangedBlock event, EntityRef blockEntity) {
+        if (cachedWalls.isEmpty()) {
+            return;
+        }
+        Vector3i position = event.getBlockPosition();
+        Iterator<CachedWall> iterator = cachedWalls.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().readRegion.encompasses(position)) {
+                iterator.remove();
             }
         }
-        PlaceBlocks placeBlocks = new PlaceBlocks(map, item.getOwner());
-        worldProvider.getWorldEntity().send(placeBlocks);
     }
 
+    private static final class CachedWall {
+        private final List<Region3i> regions;
+        private final Region3i readRegion;
+
+        private CachedWall(List<Region3i> regions, Region3i readRegion) {
+            this.regions = regions;
+            this.readRegion = readRegion;
+        }
+    }
+
+    private static final class WallKey {
+        private final Vector3i start;
+        private final Side facing;
+        private final ReplacementType replacementType;
+
+        private WallKey(Vector3i start, Side facing, ReplacementType replacementType) {
+            this.start = new Vector3i(start);
+            this.facing = facing;
+            this.replacementType = replacementType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WallKey)) {
+                return false;
+            }
+            WallKey other = (WallKey) o;
+            return facing == other.facing && replacementType == other.replacementType && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, facing, replacementType);
+        }
+    }
 }
@@ -17,11 +17,13 @@ package org.terasology.structureTemplates.internal.systems;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.engine.Time;
 import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
-import org.terasology.entitySystem.entity.lifecycleEvents.OnAddedComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnActivatedComponent;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.entitySystem.prefab.PrefabManager;
@@ -29,35 +31,60 @@ import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
 import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.logic.console.commandSystem.annotations.Command;
 import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.Region3i;
 import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
+import org.terasology.network.ClientComponent;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.PendingStructureSpawnComponent;
 import org.terasology.structureTemplates.components.ScheduleStructurePlacementComponent;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
 import org.terasology.structureTemplates.components.StructureTemplateComponent;
 import org.terasology.structureTemplates.events.CheckSpawnConditionEvent;
+import org.terasology.structureTemplates.events.GetStructureTemplateBlocksEvent;
 import org.terasology.structureTemplates.events.SpawnStructureEvent;
 import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
 import org.terasology.structureTemplates.interfaces.StructureTemplateProvider;
+import org.terasology.structureTemplates.internal.components.StructureGenerationTreeComponent;
+import org.terasology.structureTemplates.util.ChunkIndex;
+import org.terasology.structureTemplates.util.PlannedBlocks;
+import org.terasology.structureTemplates.util.StructureLayoutSolver;
+import org.terasology.structureTemplates.util.StructurePlacement;
 import org.terasology.structureTemplates.util.transform.BlockRegionMovement;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransformationList;
 import org.terasology.structureTemplates.util.transform.HorizontalBlockRegionRotation;
+import org.terasology.world.WorldProvider;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.event.OnChunkLoaded;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
  * Powers the {@link ScheduleStructurePlacementComponent}. When a {@link SpawnStructureEvent} is received it creates
  * entities with the {@lin PendingStructureSpawnComponent} in order to cause the spawning of a prefab with the
  * {@link StructureTemplateComponent} at the wanted locations.
+ *
+ * Pending spawns with an activation distance stay dormant in a chunk index till a player comes close enough or
+ * till their chunk gets loaded. Pending spawns in chunks that are not loaded stay dormant till the chunk got loaded,
+ * so that they don't check their spawn conditions against structure blocks that did not get placed yet. Pending
+ * spawns get indexed when they get activated, which includes the ones that got loaded from a save.
+ *
+ * All structures scheduled directly or indirectly by the same root structure form a generation tree, whose depth,
+ * structure count and block count are limited. The costs of a tree get added to the statistics of the
+ * structureGenerationStatistics command when its last pending spawn is gone.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class ScheduledStructureSpawnSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
     private static final Logger logger = LoggerFactory.getLogger(ScheduledStructureSpawnSystem.class);
+    private static final float SECONDS_BETWEEN_ACTIVATION_CHECKS = 0.5f;
 
     @In
     private EntityManager entityManager;
@@ -65,12 +92,24 @@ public class ScheduledStructureSpawnSystem extends BaseComponentSystem implement
     @In
     private StructureTemplateProvider structureTemplateProvider;
 
+    @In
+    private Time time;
+
+    @In
+    private WorldProvider worldProvider;
+
     private List<EntityRef> pendingSpawnEntities = new ArrayList<>();
+    private ChunkIndex<EntityRef> dormantSpawnEntities = new ChunkIndex<>();
+    private float maxDormantActivationDistance;
+    private float secondsTillActivationCheck;
 
     private EntityRef activeEntity;
     private Side activeEntityDirection;
     private Iterator<EntityRef> activeEntityRemainingTemplates;
     private Vector3i activeEntityLocation;
+    private boolean spawningSolvedLayout;
+    private EntityRef spawningGenerationTree = EntityRef.NULL;
+    private int spawningDepth;
 
 
     @In
@@ -78,48 +117,277 @@ public class ScheduledStructureSpawnSystem extends BaseComponentSystem implement
 
     private Random random = new Random();
 
+    private int finishedTreeCount;
+    private long finishedTreeStructureCount;
+    private long finishedTreeBlockCount;
+    private int finishedTreeCutOffPlacements;
+    private int deepestFinishedTree;
+    private long longestFinishedTreeTime;
+
     @ReceiveEvent
     public void onScheduleStructurePlacement(StructureBlocksSpawnedEvent event, EntityRef entity,
                                              ScheduleStructurePlacementComponent component) {
-
+        if (spawningSolvedLayout) {
+            // The placeholders of structures within a solved layout are part of the layout already
+            return;
+        }
         BlockRegionTransform transformation = event.getTransformation();
-        for (ScheduleStructurePlacementComponent.PlacementToSchedule placement: component.placementsToSchedule) {
-            Side direction =  transformation.transformSide(placement.front);
-            Vector3i position = transformation.transformVector3i(placement.position);
-            EntityBuilder entityBuilder = entityManager.newBuilder();
-            LocationComponent locationComponent = new LocationComponent();
-            locationComponent.setWorldPosition(position.toVector3f());
-            entityBuilder.addComponent(locationComponent);
-            if (placement.structureTemplateType == null) {
-                logger.error("ScheduleStructurePlacement component in prefab %s has no (valid) structureTemplateType value");
-                continue;
+        EntityRef generationTree = spawningGenerationTree;
+        int depth = spawningDepth;
+        if (!generationTree.exists()) {
+            generationTree = createGenerationTree(component, entity);
+            depth = 0;
+        }
+        if (component.solveLayoutUpFront) {
+            spawnSolvedLayout(entity, transformation, component, generationTree, depth);
+        } else {
+            for (ScheduleStructurePlacementComponent.PlacementToSchedule placement : component.placementsToSchedule) {
+                if (placement.structureTemplateType == null) {
+                    logger.error("ScheduleStructurePlacement component in prefab %s has no (valid) structureTemplateType value");
+                    continue;
+                }
+                Side direction = transformation.transformSide(placement.front);
+                Vector3i position = transformation.transformVector3i(placement.position);
+                createPendingSpawn(placement.structureTemplateType, position, direction, component.activationDistance,
+                        generationTree, depth + 1);
+            }
+        }
+        finishGenerationTreeIfDone(generationTree);
+    }
+
+    private void spawnSolvedLayout(EntityRef rootTemplate, BlockRegionTransform transformation,
+                                   ScheduleStructurePlacementComponent component, EntityRef generationTree,
+                                   int depth) {
+        long startTime = System.currentTimeMillis();
+        StructureGenerationTreeComponent treeComponent = generationTree.getComponent(
+                StructureGenerationTreeComponent.class);
+        // placeholders beyond the depth limit of the tree get left unsolved and cut off by createPendingSpawn:
+        int maxDepth = Math.max(0, Math.min(StructureLayoutSolver.DEFAULT_MAX_DEPTH, treeComponent.maxDepth - depth));
+        long maxBlocks = treeComponent.maxBlocks > 0 ? treeComponent.maxBlocks - treeComponent.blockCount
+                : Long.MAX_VALUE;
+        StructureLayoutSolver<EntityRef> solver = new StructureLayoutSolver<>(
+                new TemplateEntities(structureTemplateProvider), maxDepth, StructureLayoutSolver.DEFAULT_MAX_ATTEMPTS,
+                treeComponent.maxStructures - treeComponent.structureCount, maxBlocks);
+        List<StructureLayoutSolver.Placement<EntityRef>> solvedPlacements = solver.solve(rootTemplate, transformation);
+        List<StructurePlacement> placements = new ArrayList<>();
+        for (StructureLayoutSolver.Placement<EntityRef> placement : solvedPlacements) {
+            placements.add(new StructurePlacement(placement.getTemplate(), placement.getTransformation()));
+            treeComponent.structureCount++;
+            treeComponent.blockCount += countBlocks(placement.getTemplate());
+            treeComponent.reachedDepth = Math.max(treeComponent.reachedDepth, depth + placement.getDepth() + 1);
+        }
+        treeComponent.cutOffPlacements += solver.getCutOffPlaceholderCount();
+        generationTree.saveComponent(treeComponent);
+        spawningSolvedLayout = true;
+        try {
+            structureTemplateProvider.spawnStructures(placements);
+        } finally {
+            spawningSolvedLayout = false;
+        }
+        for (StructureLayoutSolver.Placeholder placeholder : solver.getUnsolvedPlaceholders()) {
+            createPendingSpawn(placeholder.getStructureTemplateType(), placeholder.getPosition(),
+                    placeholder.getFront(), placeholder.getActivationDistance(), generationTree,
+                    depth + placeholder.getDepth() + 1);
+        }
+        logger.debug("Solved and spawned layout of {} structures in {} ms, {} placeholders are left for later",
+                placements.size(), System.currentTimeMillis() - startTime, solver.getUnsolvedPlaceholders().size());
+    }
+
+    private EntityRef createGenerationTree(ScheduleStructurePlacementComponent rootComponent, EntityRef rootTemplate) {
+        StructureGenerationTreeComponent treeComponent = new StructureGenerationTreeComponent();
+        treeComponent.maxDepth = rootComponent.maxGenerationDepth;
+        treeComponent.maxStructures = rootComponent.maxStructuresPerGeneration;
+        treeComponent.maxBlocks = rootComponent.maxBlocksPerGeneration;
+        treeComponent.structureCount = 1;
+        treeComponent.blockCount = countBlocks(rootTemplate);
+        treeComponent.startTime = time.getGameTimeInMs();
+        EntityBuilder entityBuilder = entityManager.newBuilder();
+        entityBuilder.addComponent(treeComponent);
+        return entityBuilder.build();
+    }
+
+    private void createPendingSpawn(Prefab structureTemplateType, Vector3i position, Side direction,
+                                    float activationDistance, EntityRef generationTree, int depth) {
+        StructureGenerationTreeComponent treeComponent = generationTree.getComponent(
+                StructureGenerationTreeComponent.class);
+        if (isLimitReached(treeComponent, depth)) {
+            treeComponent.cutOffPlacements++;
+            generationTree.saveComponent(treeComponent);
+            return;
+        }
+        treeComponent.pendingSpawnCount++;
+        generationTree.saveComponent(treeComponent);
+
+        EntityBuilder entityBuilder = entityManager.newBuilder();
+        LocationComponent locationComponent = new LocationComponent();
+        locationComponent.setWorldPosition(position.toVector3f());
+        entityBuilder.addComponent(locationComponent);
+
+        PendingStructureSpawnComponent pendingStructureSpawnComponent = new PendingStructureSpawnComponent();
+        pendingStructureSpawnComponent.front = direction;
+        pendingStructureSpawnComponent.structureTemplateType = structureTemplateType;
+        pendingStructureSpawnComponent.activationDistance = activationDistance;
+        pendingStructureSpawnComponent.generationTree = generationTree;
+        pendingStructureSpawnComponent.depth = depth;
+        entityBuilder.addComponent(pendingStructureSpawnComponent);
+        entityBuilder.build();
+    }
+
+    private static boolean isLimitReached(StructureGenerationTreeComponent treeComponent, int depth) {
+        return depth > treeComponent.maxDepth
+                || treeComponent.structureCount >= treeComponent.maxStructures
+                || (treeComponent.maxBlocks > 0 && treeComponent.blockCount >= treeComponent.maxBlocks);
+    }
+
+    private static long countBlocks(EntityRef template) {
+        SpawnBlockRegionsComponent spawnBlockRegionsComponent = template.getComponent(
+                SpawnBlockRegionsComponent.class);
+        long blockCount = 0;
+        if (spawnBlockRegionsComponent != null) {
+            for (SpawnBlockRegionsComponent.RegionToFill regionToFill : spawnBlockRegionsComponent.regionsToFill) {
+                Region3i region = regionToFill.region;
+                blockCount += (long) region.sizeX() * region.sizeY() * region.sizeZ();
             }
+        }
+        return blockCount;
+    }
+
+    private void finishGenerationTreeIfDone(EntityRef generationTree) {
+        StructureGenerationTreeComponent treeComponent = generationTree.getComponent(
+                StructureGenerationTreeComponent.class);
+        if (treeComponent == null || treeComponent.pendingSpawnCount > 0) {
+            return;
+        }
+        long duration = time.getGameTimeInMs() - treeComponent.startTime;
+        logger.debug("Structure generation finished after {} ms: {} structures, {} blocks, depth {}, "
+                        + "{} placements dropped due to limits", duration,
+                treeComponent.structureCount, treeComponent.blockCount, treeComponent.reachedDepth,
+                treeComponent.cutOffPlacements);
+        finishedTreeCount++;
+        finishedTreeStructureCount += treeComponent.structureCount;
+        finishedTreeBlockCount += treeComponent.blockCount;
+        finishedTreeCutOffPlacements += treeComponent.cutOffPlacements;
+        deepestFinishedTree = Math.max(deepestFinishedTree, treeComponent.reachedDepth);
+        longestFinishedTreeTime = Math.max(longestFinishedTreeTime, duration);
+        generationTree.destroy();
+    }
 
-            PendingStructureSpawnComponent pendingStructureSpawnComponent = new PendingStructureSpawnComponent();
-            pendingStructureSpawnComponent.front = direction;
-            pendingStructureSpawnComponent.structureTemplateType = placement.structureTemplateType;
-            entityBuilder.addComponent(pendingStructureSpawnComponent);
-            entityBuilder.build();
+    /**
+     * Sums up the generation trees that finished since the game got started and lists the ones that still have
+     * pending spawns.
+     */
+    @Command(shortDescription = "Shows the costs of the structures generated via scheduled placements",
+            runOnServer = true)
+    public String structureGenerationStatistics() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Finished generation trees: ").append(finishedTreeCount)
+                .append(", structures: ").append(finishedTreeStructureCount)
+                .append(", blocks: ").append(finishedTreeBlockCount)
+                .append(", placements cut off by limits: ").append(finishedTreeCutOffPlacements)
+                .append(", deepest: ").append(deepestFinishedTree)
+                .append(", longest: ").append(longestFinishedTreeTime).append(" ms");
+        long gameTime = time.getGameTimeInMs();
+        for (EntityRef generationTree : entityManager.getEntitiesWith(StructureGenerationTreeComponent.class)) {
+            StructureGenerationTreeComponent treeComponent = generationTree.getComponent(
+                    StructureGenerationTreeComponent.class);
+            sb.append("\nRunning for ").append(gameTime - treeComponent.startTime).append(" ms")
+                    .append(", structures: ").append(treeComponent.structureCount)
+                    .append("/").append(treeComponent.maxStructures)
+                    .append(", blocks: ").append(treeComponent.blockCount);
+            if (treeComponent.maxBlocks > 0) {
+                sb.append("/").append(treeComponent.maxBlocks);
+            }
+            sb.append(", depth: ").append(treeComponent.reachedDepth).append("/").append(treeComponent.maxDepth)
+                    .append(", placements cut off by limits: ").append(treeComponent.cutOffPlacements)
+                    .append(", pending spawns: ").append(treeComponent.pendingSpawnCount);
         }
+        return sb.toString();
     }
 
     @ReceiveEvent
-    public void onAddedPendingStructureSpawnComponent(OnAddedComponent event, EntityRef entity,
-                                                      PendingStructureSpawnComponent component,
-                                                      LocationComponent locationComponent) {
-        pendingSpawnEntities.add(entity);
+    public void onActivatedPendingStructureSpawnComponent(OnActivatedComponent event, EntityRef entity,
+                                                          PendingStructureSpawnComponent component,
+                                                          LocationComponent locationComponent) {
+        Vector3i position = new Vector3i(locationComponent.getWorldPosition());
+        if (component.activationDistance > 0 || !worldProvider.isBlockRelevant(position)) {
+            dormantSpawnEntities.add(position, entity);
+            maxDormantActivationDistance = Math.max(maxDormantActivationDistance, component.activationDistance);
+        } else {
+            pendingSpawnEntities.add(entity);
+        }
     }
 
+    /**
+     * Gets also called when the chunk of the pending spawn gets unloaded. The spawn gets indexed again when it gets
+     * loaded again.
+     */
+    @ReceiveEvent
+    public void onBeforeDeactivatePendingStructureSpawnComponent(BeforeDeactivateComponent event, EntityRef entity,
+                                                                 PendingStructureSpawnComponent component,
+                                                                 LocationComponent locationComponent) {
+        if (!pendingSpawnEntities.remove(entity)) {
+            dormantSpawnEntities.remove(new Vector3i(locationComponent.getWorldPosition()), entity);
+        }
+        if (entity.equals(activeEntity)) {
+            clearActiveEntityFields();
+        }
+    }
+
+    /**
+     * Unlike the deactivation, this happens only when the spawn is no longer pending.
+     */
     @ReceiveEvent
     public void onBeforeRemovePendingStructureSpawnComponent(BeforeRemoveComponent event, EntityRef entity,
-                                                             PendingStructureSpawnComponent component,
-                                                             LocationComponent locationComponent) {
-        pendingSpawnEntities.remove(entity);
+                                                             PendingStructureSpawnComponent component) {
+        StructureGenerationTreeComponent treeComponent = component.generationTree.getComponent(
+                StructureGenerationTreeComponent.class);
+        if (treeComponent != null) {
+            treeComponent.pendingSpawnCount--;
+            component.generationTree.saveComponent(treeComponent);
+            finishGenerationTreeIfDone(component.generationTree);
+        }
+    }
+
+    @ReceiveEvent
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        if (!dormantSpawnEntities.isEmpty()) {
+            pendingSpawnEntities.addAll(dormantSpawnEntities.removeAllOfChunk(event.getChunkPos()));
+        }
+    }
+
+    private void activateDormantSpawnsNearPlayers() {
+        for (EntityRef clientEntity : entityManager.getEntitiesWith(ClientComponent.class)) {
+            ClientComponent clientComponent = clientEntity.getComponent(ClientComponent.class);
+            LocationComponent characterLocation = clientComponent.character.getComponent(LocationComponent.class);
+            if (characterLocation == null) {
+                continue;
+            }
+            Vector3f playerPosition = characterLocation.getWorldPosition();
+            int range = (int) Math.ceil(maxDormantActivationDistance);
+            Vector3i center = new Vector3i(playerPosition);
+            Region3i searchRegion = Region3i.createFromCenterExtents(center, new Vector3i(range, range, range));
+            pendingSpawnEntities.addAll(dormantSpawnEntities.removeWithin(searchRegion, (position, entity) -> {
+                PendingStructureSpawnComponent component = entity.getComponent(PendingStructureSpawnComponent.class);
+                float distance = component != null ? component.activationDistance : 0;
+                return position.toVector3f().distanceSquared(playerPosition) <= distance * distance;
+            }));
+        }
+        if (dormantSpawnEntities.isEmpty()) {
+            maxDormantActivationDistance = 0;
+        }
     }
 
 
     @Override
     public void update(float delta) {
+        if (!dormantSpawnEntities.isEmpty()) {
+            secondsTillActivationCheck -= delta;
+            if (secondsTillActivationCheck <= 0) {
+                secondsTillActivationCheck = SECONDS_BETWEEN_ACTIVATION_CHECKS;
+                activateDormantSpawnsNearPlayers();
+            }
+        }
+
         if (pendingSpawnEntities.size() == 0) {
             return;
         }
@@ -133,6 +401,17 @@ public class ScheduledStructureSpawnSystem extends BaseComponentSystem implement
             if (pendingStructureSpawnComponent == null || locationComponent == null) {
                 // should not happen though how map gets filled, but just to be sure
                 activeEntity.destroy();
+                activeEntity = null;
+                return;
+            }
+            StructureGenerationTreeComponent treeComponent = pendingStructureSpawnComponent.generationTree
+                    .getComponent(StructureGenerationTreeComponent.class);
+            if (treeComponent != null && isLimitReached(treeComponent, pendingStructureSpawnComponent.depth)) {
+                // the other branches of the tree reached a limit since the spawn got scheduled
+                treeComponent.cutOffPlacements++;
+                pendingStructureSpawnComponent.generationTree.saveComponent(treeComponent);
+                activeEntity.destroy();
+                activeEntity = null;
                 return;
             }
             Prefab type = pendingStructureSpawnComponent.structureTemplateType;
@@ -164,17 +443,38 @@ public class ScheduledStructureSpawnSystem extends BaseComponentSystem implement
             return;
         }
 
-        structureToSpawn.send(new SpawnStructureEvent(transformList));
+        PendingStructureSpawnComponent pendingStructureSpawnComponent = activeEntity.getComponent(
+                PendingStructureSpawnComponent.class);
+        EntityRef generationTree = pendingStructureSpawnComponent.generationTree;
+        StructureGenerationTreeComponent treeComponent = generationTree.getComponent(
+                StructureGenerationTreeComponent.class);
+        if (treeComponent != null) {
+            treeComponent.structureCount++;
+            treeComponent.blockCount += countBlocks(structureToSpawn);
+            treeComponent.reachedDepth = Math.max(treeComponent.reachedDepth, pendingStructureSpawnComponent.depth);
+            generationTree.saveComponent(treeComponent);
+        }
+        spawningGenerationTree = generationTree;
+        spawningDepth = pendingStructureSpawnComponent.depth;
+        try {
+            structureToSpawn.send(new SpawnStructureEvent(transformList));
+        } finally {
+            spawningGenerationTree = EntityRef.NULL;
+            spawningDepth = 0;
+        }
         destroyActiveEntityAndItsClearFields();
     }
 
     private void destroyActiveEntityAndItsClearFields() {
         activeEntity.destroy();
+        clearActiveEntityFields();
+    }
+
+    private void clearActiveEntityFields() {
         activeEntity = null;
         activeEntityRemainingTemplates = null;
         activeEntityDirection = null;
         activeEntityLocation = null;
-
     }
 
     static BlockRegionTransformationList createTransformForIncomingConnectionPoint(Side direction, Vector3i spawnPosition, Vector3i incomingConnectionPointPosition, Side incomingConnectionPointDirection) {
@@ -190,4 +490,71 @@ public class ScheduledStructureSpawnSystem extends BaseComponentSystem implement
         transformList.addTransformation(new BlockRegionMovement(actualSpawnPosition));
         return transformList;
     }
+
+    /**
+     * Lets the {@link StructureLayoutSolver} work with the template entities.
+     */
+    private static final class TemplateEntities implements StructureLayoutSolver.Templates<EntityRef> {
+        private final StructureTemplateProvider structureTemplateProvider;
+
+        private TemplateEntities(StructureTemplateProvider structureTemplateProvider) {
+            this.structureTemplateProvider = structureTemplateProvider;
+        }
+
+        @Override
+        public Iterator<EntityRef> iterateCandidates(StructureLayoutSolver.Placeholder placeholder) {
+            return structureTemplateProvider.iterateStructureTempaltesOfTypeInRandomOrder(
+                    placeholder.getStructureTemplateType());
+        }
+
+        @Override
+        public List<Region3i> getRegions(EntityRef template) {
+            List<Region3i> regions = new ArrayList<>();
+            SpawnBlockRegionsComponent spawnBlockRegionsComponent = template.getComponent(
+                    SpawnBlockRegionsComponent.class);
+            if (spawnBlockRegionsComponent != null) {
+                for (SpawnBlockRegionsComponent.RegionToFill regionToFill : spawnBlockRegionsComponent.regionsToFill) {
+                    regions.add(regionToFill.region);
+                }
+            }
+            return regions;
+        }
+
+        @Override
+        public List<StructureLayoutSolver.Placeholder> getPlaceholders(EntityRef template,
+                                                                      BlockRegionTransform transformation,
+                                                                      int depth) {
+            List<StructureLayoutSolver.Placeholder> placeholders = new ArrayList<>();
+            ScheduleStructurePlacementComponent component = template.getComponent(
+                    ScheduleStructurePlacementComponent.class);
+            if (component == null) {
+                return placeholders;
+            }
+            for (ScheduleStructurePlacementComponent.PlacementToSchedule placement : component.placementsToSchedule) {
+                if (placement.structureTemplateType == null) {
+                    continue;
+                }
+                placeholders.add(new StructureLayoutSolver.Placeholder(placement.structureTemplateType,
+                        transformation.transformVector3i(placement.position),
+                        transformation.transformSide(placement.front), depth, component.activationDistance));
+            }
+            return placeholders;
+        }
+
+        @Override
+        public Map<Vector3i, Block> getBlocks(EntityRef template, BlockRegionTransform transformation) {
+            GetStructureTemplateBlocksEvent getBlocksEvent = new GetStructureTemplateBlocksEvent(transformation);
+            template.send(getBlocksEvent);
+            return getBlocksEvent.getBlocksToPlace();
+        }
+
+        @Override
+        public boolean meetsSpawnConditions(EntityRef template, BlockRegionTransform transformation,
+                                            PlannedBlocks plannedBlocks) {
+            CheckSpawnConditionEvent checkSpawnConditionEvent = new CheckSpawnConditionEvent(transformation,
+                    plannedBlocks);
+            template.send(checkSpawnConditionEvent);
+            return !checkSpawnConditionEvent.isPreventSpawn();
+        }
+    }
 }
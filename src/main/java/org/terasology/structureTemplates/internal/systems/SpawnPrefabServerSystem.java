@@ -20,23 +20,44 @@ import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.event.ReceiveEvent;
+import org.terasology.entitySystem.prefab.Prefab;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
+import org.terasology.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.logic.location.LocationComponent;
+import org.terasology.math.ChunkMath;
 import org.terasology.math.geom.Quat4f;
+import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.SpawnPrefabsComponent;
+import org.terasology.structureTemplates.components.SpawnPrefabsComponent.PrefabToSpawn;
 import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
+import org.terasology.structureTemplates.internal.components.PendingPrefabSpawnsComponent;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 import org.terasology.world.WorldProvider;
+import org.terasology.world.chunks.event.BeforeChunkUnload;
+import org.terasology.world.chunks.event.OnChunkLoaded;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Contains the logic to make {@link SpawnPrefabsComponent} work.
+ *
+ * Structures with a lot of prefabs get their entities created over multiple updates. The prefabs that could not be
+ * spawned right away get stored per chunk in {@link PendingPrefabSpawnsComponent}s, so that they survive saving and
+ * only get spawned while their chunk is loaded.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
-public class SpawnPrefabServerSystem extends BaseComponentSystem {
+public class SpawnPrefabServerSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+    private static final int MAX_PREFABS_PER_UPDATE = 32;
 
     @In
     private EntityManager entityManager;
@@ -45,20 +66,138 @@ public class SpawnPrefabServerSystem extends BaseComponentSystem {
     @In
     private WorldProvider worldProvider;
 
+    private Map<Vector3i, EntityRef> pendingSpawnsByChunk = new HashMap<>();
+    /**
+     * Loaded chunks with pending spawns, in the order they should be processed.
+     */
+    private Set<Vector3i> chunksToProcess = new LinkedHashSet<>();
+    private final Vector3f scratchPosition = new Vector3f();
+    private final Quat4f scratchRotation = new Quat4f();
+
+    @Override
+    public void postBegin() {
+        pendingSpawnsByChunk.clear();
+        chunksToProcess.clear();
+        for (EntityRef entity : entityManager.getEntitiesWith(PendingPrefabSpawnsComponent.class)) {
+            PendingPrefabSpawnsComponent component = entity.getComponent(PendingPrefabSpawnsComponent.class);
+            if (component.chunkPosition == null || pendingSpawnsByChunk.containsKey(component.chunkPosition)) {
+                entity.destroy();
+                continue;
+            }
+            pendingSpawnsByChunk.put(component.chunkPosition, entity);
+            if (isChunkLoaded(component)) {
+                chunksToProcess.add(component.chunkPosition);
+            }
+        }
+    }
+
     @ReceiveEvent
     public void onSpawnStructureWithPrefabSpawn(StructureBlocksSpawnedEvent event, EntityRef entity,
                                                 SpawnPrefabsComponent component) {
-        for (SpawnPrefabsComponent.PrefabToSpawn prefabToSpawn : component.prefabsToSpawn) {
-            Vector3i position = event.getTransformation().transformVector3i(prefabToSpawn.position);
-            Quat4f rotation = event.getTransformation().transformRotation(prefabToSpawn.rotation);
+        BlockRegionTransform transformation = event.getTransformation();
+        Quat4f horizontalRotation = transformation.getHorizontalRotation();
+        Map<Vector3i, List<PrefabToSpawn>> deferredSpawnsByChunk = new HashMap<>();
+        int budget = MAX_PREFABS_PER_UPDATE;
+        for (PrefabToSpawn prefabToSpawn : component.prefabsToSpawn) {
+            Vector3i position = transformation.transformVector3i(prefabToSpawn.position);
+            if (budget > 0 && worldProvider.isBlockRelevant(position)) {
+                scratchRotation.set(horizontalRotation);
+                scratchRotation.mul(prefabToSpawn.rotation);
+                spawnPrefab(prefabToSpawn.prefab, position, scratchRotation);
+                budget--;
+            } else {
+                PrefabToSpawn deferredSpawn = new PrefabToSpawn();
+                deferredSpawn.prefab = prefabToSpawn.prefab;
+                deferredSpawn.position = position;
+                deferredSpawn.rotation = new Quat4f(horizontalRotation);
+                deferredSpawn.rotation.mul(prefabToSpawn.rotation);
+                deferredSpawnsByChunk.computeIfAbsent(ChunkMath.calcChunkPos(position), pos -> new ArrayList<>())
+                        .add(deferredSpawn);
+            }
+        }
+        for (Map.Entry<Vector3i, List<PrefabToSpawn>> entry : deferredSpawnsByChunk.entrySet()) {
+            addPendingSpawns(entry.getKey(), entry.getValue());
+        }
+    }
 
-            EntityBuilder entityBuilder = entityManager.newBuilder(prefabToSpawn.prefab);
-            LocationComponent locationComponent = entityBuilder.getComponent(LocationComponent.class);
-            locationComponent.setWorldPosition(position.toVector3f());
-            locationComponent.setWorldRotation(rotation);
+    private void addPendingSpawns(Vector3i chunkPosition, List<PrefabToSpawn> prefabsToSpawn) {
+        EntityRef entity = pendingSpawnsByChunk.getOrDefault(chunkPosition, EntityRef.NULL);
+        PendingPrefabSpawnsComponent component = entity.getComponent(PendingPrefabSpawnsComponent.class);
+        if (component == null) {
+            component = new PendingPrefabSpawnsComponent();
+            component.chunkPosition = chunkPosition;
+            component.prefabsToSpawn.addAll(prefabsToSpawn);
+            EntityBuilder entityBuilder = entityManager.newBuilder();
+            entityBuilder.setPersistent(true);
+            entityBuilder.addComponent(component);
+            pendingSpawnsByChunk.put(chunkPosition, entityBuilder.build());
+        } else {
+            List<PrefabToSpawn> remainingSpawns = new ArrayList<>(component.prefabsToSpawn.subList(
+                    component.nextIndex, component.prefabsToSpawn.size()));
+            remainingSpawns.addAll(prefabsToSpawn);
+            component.prefabsToSpawn = remainingSpawns;
+            component.nextIndex = 0;
+            entity.saveComponent(component);
+        }
+        if (isChunkLoaded(component)) {
+            chunksToProcess.add(chunkPosition);
+        }
+    }
 
-            entityBuilder.build();
+    @ReceiveEvent
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        if (pendingSpawnsByChunk.containsKey(event.getChunkPos())) {
+            chunksToProcess.add(new Vector3i(event.getChunkPos()));
         }
+    }
+
+    @ReceiveEvent
+    public void onBeforeChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        chunksToProcess.remove(event.getChunkPos());
+    }
+
+    @Override
+    public void update(float delta) {
+        int budget = MAX_PREFABS_PER_UPDATE;
+        Iterator<Vector3i> chunkIterator = chunksToProcess.iterator();
+        while (budget > 0 && chunkIterator.hasNext()) {
+            Vector3i chunkPosition = chunkIterator.next();
+            EntityRef entity = pendingSpawnsByChunk.getOrDefault(chunkPosition, EntityRef.NULL);
+            PendingPrefabSpawnsComponent component = entity.getComponent(PendingPrefabSpawnsComponent.class);
+            if (component == null) {
+                pendingSpawnsByChunk.remove(chunkPosition);
+                chunkIterator.remove();
+                continue;
+            }
+            while (budget > 0 && component.nextIndex < component.prefabsToSpawn.size()) {
+                PrefabToSpawn prefabToSpawn = component.prefabsToSpawn.get(component.nextIndex);
+                spawnPrefab(prefabToSpawn.prefab, prefabToSpawn.position, prefabToSpawn.rotation);
+                component.nextIndex++;
+                budget--;
+            }
+            if (component.nextIndex < component.prefabsToSpawn.size()) {
+                entity.saveComponent(component);
+            } else {
+                pendingSpawnsByChunk.remove(chunkPosition);
+                chunkIterator.remove();
+                entity.destroy();
+            }
+        }
+    }
+
+    private boolean isChunkLoaded(PendingPrefabSpawnsComponent component) {
+        return !component.prefabsToSpawn.isEmpty()
+                && worldProvider.isBlockRelevant(component.prefabsToSpawn.get(0).position);
+    }
+
+    private void spawnPrefab(Prefab prefab, Vector3i position, Quat4f rotation) {
+        scratchPosition.set(position.x, position.y, position.z);
+
+        EntityBuilder entityBuilder = entityManager.newBuilder(prefab);
+        LocationComponent locationComponent = entityBuilder.getComponent(LocationComponent.class);
+        locationComponent.setWorldPosition(scratchPosition);
+        locationComponent.setWorldRotation(rotation);
 
+        entityBuilder.build();
     }
 }
@@ -15,7 +15,6 @@
  */
 package org.terasology.structureTemplates.internal.systems;
 
-import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
@@ -42,7 +41,6 @@ import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
-import org.terasology.rendering.logic.RegionOutlineComponent;
 import org.terasology.rendering.nui.Color;
 import org.terasology.rendering.nui.NUIManager;
 import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
@@ -50,6 +48,8 @@ import org.terasology.structureTemplates.components.SpawnStructureActionComponen
 import org.terasology.structureTemplates.events.CheckSpawnConditionEvent;
 import org.terasology.structureTemplates.internal.events.StructureSpawnFailedEvent;
 import org.terasology.structureTemplates.internal.ui.StructurePlacementFailureScreen;
+import org.terasology.structureTemplates.util.RegionOutlinePool;
+import org.terasology.structureTemplates.util.RegionOutlinePool.ColoredRegion;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 import org.terasology.world.block.BlockComponent;
 
@@ -61,11 +61,15 @@ import java.util.List;
 /**
  * Shows a preview/outline of the structure to spawn when the player hold a item with
  * {@link SpawnStructureActionComponent} and {@link SpawnBlockRegionsComponent}.
+ *
+ * Preview updates are debounced, so that aiming across terrain updates the preview only once the target settles.
  */
 @RegisterSystem(RegisterMode.CLIENT)
 public class StructureSpawnClientSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
 
     public static final String STRUCTURE_PLACEMENT_FAILURE_OVERLAY = "StructureTemplates:StructurePlacementFailureScreen";
+    private static final float PREVIEW_DEBOUNCE_SECONDS = 0.05f;
+
     @In
     private ClipboardManager clipboardManager;
 
@@ -84,15 +88,31 @@ public class StructureSpawnClientSystem extends BaseComponentSystem implements U
     @In
     private InputSystem inputSystem;
 
-    private List<EntityRef> regionOutlineEntities = new ArrayList<>();
+    private RegionOutlinePool regionOutlinePool;
+
+    private boolean previewUpdateRequested;
+    private float secondsTillPreviewUpdate;
 
     private Vector3i spawnPosition;
 
     private Side directionPlayerLooksAt;
 
 
+    @Override
+    public void initialise() {
+        regionOutlinePool = new RegionOutlinePool(entityManager);
+    }
+
     @Override
     public void update(float delta) {
+        if (previewUpdateRequested) {
+            secondsTillPreviewUpdate -= delta;
+            if (secondsTillPreviewUpdate <= 0) {
+                previewUpdateRequested = false;
+                replaceRegionOutlineEntitiesWith(getRegionsToDraw());
+            }
+        }
+
         LocationComponent locationComponent = locatPlayer.getCharacterEntity().getComponent(LocationComponent.class);
         if (locationComponent == null) {
             directionPlayerLooksAt = null;
@@ -150,38 +170,19 @@ public class StructureSpawnClientSystem extends BaseComponentSystem implements U
         updateOutlineEntity();
     }
 
+    /**
+     * Requests an update of the preview. The update happens in the next update call that follows a short time
+     * without further requests.
+     */
     public void updateOutlineEntity() {
-        List<ColoredRegion> regionsToDraw = getRegionsToDraw();
-        replaceRegionOutlineEntitiesWith(regionsToDraw);
+        previewUpdateRequested = true;
+        secondsTillPreviewUpdate = PREVIEW_DEBOUNCE_SECONDS;
     }
 
     void replaceRegionOutlineEntitiesWith(List<ColoredRegion> regionsToDraw) {
-        for (EntityRef entity : regionOutlineEntities) {
-            if (entity.exists()) {
-                entity.destroy();
-            }
-        }
-
-        for (ColoredRegion coloredRegion : regionsToDraw) {
-            Region3i region = coloredRegion.region;
-            Color color = coloredRegion.getColor();
-            EntityRef entity = createOutlineEntity(region, color);
-            regionOutlineEntities.add(entity);
-        }
+        regionOutlinePool.showColoredRegions(regionsToDraw);
     }
 
-    private EntityRef createOutlineEntity(Region3i region, Color color) {
-        EntityBuilder entityBuilder = entityManager.newBuilder();
-        entityBuilder.setPersistent(false);
-        RegionOutlineComponent regionOutlineComponent = new RegionOutlineComponent();
-        regionOutlineComponent.corner1 = new Vector3i(region.min());
-        regionOutlineComponent.corner2 = new Vector3i(region.max());
-        regionOutlineComponent.color = color;
-        entityBuilder.addComponent(regionOutlineComponent);
-        return entityBuilder.build();
-    }
-
-
     private List<ColoredRegion> getRegionsToDraw() {
         EntityRef characterEntity = locatPlayer.getCharacterEntity();
         SelectedInventorySlotComponent selectedSlotComponent = characterEntity.
@@ -240,25 +241,6 @@ public class StructureSpawnClientSystem extends BaseComponentSystem implements U
         return regionsToDraw;
     }
 
-    private static final class ColoredRegion {
-        private Region3i region;
-        private Color color;
-
-        public ColoredRegion(Region3i region, Color color) {
-            this.region = region;
-            this.color = color;
-        }
-
-        public Region3i getRegion() {
-            return region;
-        }
-
-        public Color getColor() {
-            return color;
-        }
-    }
-
-
     @ReceiveEvent
     public void onStructureSpawnFailedEvent(StructureSpawnFailedEvent event, EntityRef entity,
                                             SpawnStructureActionComponent spawnActionComponent) {
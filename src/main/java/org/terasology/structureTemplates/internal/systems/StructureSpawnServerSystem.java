@@ -17,23 +17,27 @@ package org.terasology.structureTemplates.internal.systems;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.entitySystem.entity.lifecycleEvents.BeforeDeactivateComponent;
+import org.terasology.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.entitySystem.event.EventPriority;
 import org.terasology.entitySystem.event.ReceiveEvent;
 import org.terasology.entitySystem.systems.BaseComponentSystem;
 import org.terasology.entitySystem.systems.RegisterMode;
 import org.terasology.entitySystem.systems.RegisterSystem;
 import org.terasology.logic.common.ActivateEvent;
+import org.terasology.logic.console.commandSystem.annotations.Command;
+import org.terasology.logic.console.commandSystem.annotations.CommandParam;
 import org.terasology.logic.inventory.InventoryManager;
 import org.terasology.logic.location.LocationComponent;
-import org.terasology.math.Region3i;
+import org.terasology.logic.permission.PermissionManager;
 import org.terasology.math.Side;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
 import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
-import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.RegionToFill;
 import org.terasology.structureTemplates.components.SpawnStructureActionComponent;
 import org.terasology.structureTemplates.components.StructureTemplateComponent;
 import org.terasology.structureTemplates.events.CheckSpawnConditionEvent;
@@ -42,16 +46,30 @@ import org.terasology.structureTemplates.events.SpawnStructureEvent;
 import org.terasology.structureTemplates.events.SpawnTemplateEvent;
 import org.terasology.structureTemplates.events.StructureBlocksSpawnedEvent;
 import org.terasology.structureTemplates.events.StructureSpawnStartedEvent;
+import org.terasology.structureTemplates.internal.components.PendingBlockPatchComponent;
+import org.terasology.structureTemplates.internal.events.SpawnStructureBatchEvent;
 import org.terasology.structureTemplates.internal.events.StructureSpawnFailedEvent;
+import org.terasology.structureTemplates.util.BlockRegionUtilities;
+import org.terasology.structureTemplates.util.BlocksByChunk;
+import org.terasology.structureTemplates.util.PendingBlockPatches;
+import org.terasology.structureTemplates.util.RotatedTemplateVariant;
+import org.terasology.structureTemplates.util.SpawnUndoJournal;
+import org.terasology.structureTemplates.util.StructurePlacement;
 import org.terasology.structureTemplates.util.transform.BlockRegionMovement;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
 import org.terasology.structureTemplates.util.transform.BlockRegionTransformationList;
 import org.terasology.structureTemplates.util.transform.HorizontalBlockRegionRotation;
+import org.terasology.structureTemplates.util.transform.HorizontalRotationAndMovement;
 import org.terasology.world.WorldProvider;
 import org.terasology.world.block.Block;
 import org.terasology.world.block.BlockComponent;
 import org.terasology.world.block.BlockManager;
+import org.terasology.world.chunks.event.OnChunkLoaded;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -59,11 +77,16 @@ import java.util.Map;
  * e.g. the entity that receives a {@link SpawnStructureEvent} has a {@link SpawnBlockRegionsComponent} then
  * the regions specified by that component will be filled with the specified block types.
  * <p>
- * Handles also the activation of items with the {@link SpawnStructureActionComponent}
+ * Handles also the activation of items with the {@link SpawnStructureActionComponent} and the spawning of
+ * multiple structures at once via {@link SpawnStructureBatchEvent}.
+ * <p>
+ * When enabled via a console command, the overwritten blocks of each spawn get recorded in a
+ * {@link SpawnUndoJournal}, so that the spawn can be undone.
  */
 @RegisterSystem(RegisterMode.AUTHORITY)
 public class StructureSpawnServerSystem extends BaseComponentSystem {
     private static final Logger logger = LoggerFactory.getLogger(StructureSpawnServerSystem.class);
+    private static final int MAX_CACHED_TEMPLATES = 64;
 
     @In
     private WorldProvider worldProvider;
@@ -77,6 +100,30 @@ public class StructureSpawnServerSystem extends BaseComponentSystem {
     @In
     private BlockManager blockManager;
 
+    private Map<EntityRef, RotatedVariantsOfTemplate> rotatedVariantsCache =
+            new LinkedHashMap<EntityRef, RotatedVariantsOfTemplate>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<EntityRef, RotatedVariantsOfTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            };
+    private Map<Vector3i, EntityRef> pendingBlockPatches = new HashMap<>();
+    private SpawnUndoJournal undoJournal = new SpawnUndoJournal();
+    private boolean recordSpawnsForUndo;
+
+    @Override
+    public void postBegin() {
+        pendingBlockPatches.clear();
+        for (EntityRef entity : entityManager.getEntitiesWith(PendingBlockPatchComponent.class)) {
+            PendingBlockPatchComponent component = entity.getComponent(PendingBlockPatchComponent.class);
+            if (component.chunkPosition == null || pendingBlockPatches.containsKey(component.chunkPosition)) {
+                logger.warn("Removing pending structure blocks without valid chunk");
+                entity.destroy();
+                continue;
+            }
+            pendingBlockPatches.put(component.chunkPosition, entity);
+        }
+    }
 
     @ReceiveEvent(priority = EventPriority.PRIORITY_CRITICAL)
     public void onSpawnStructureEventWithHighestPriority(SpawnStructureEvent event, EntityRef entity) {
@@ -95,19 +142,174 @@ public class StructureSpawnServerSystem extends BaseComponentSystem {
     }
 
 
+    @ReceiveEvent
+    public void onSpawnStructureBatch(SpawnStructureBatchEvent event, EntityRef worldEntity) {
+        List<StructurePlacement> placements = event.getPlacements();
+        for (StructurePlacement placement : placements) {
+            placement.getTemplate().send(new StructureSpawnStartedEvent(placement.getTransformation()));
+        }
+
+        long startTime = System.currentTimeMillis();
+        BlocksByChunk blocksByChunk = new BlocksByChunk();
+        for (StructurePlacement placement : placements) {
+            GetStructureTemplateBlocksEvent getBlocksEvent = new GetStructureTemplateBlocksEvent(
+                    placement.getTransformation());
+            placement.getTemplate().send(getBlocksEvent);
+            blocksByChunk.putAll(getBlocksEvent.getBlocksToPlace());
+        }
+        int skippedBlocks = placeBlocks(blocksByChunk);
+        long delta = System.currentTimeMillis() - startTime;
+        if (delta > 20) {
+            logger.warn("Batch of {} structures took {} ms to spawn ({} of {} blocks were already present)",
+                    placements.size(), delta, skippedBlocks, blocksByChunk.getBlockCount());
+        }
+
+        for (StructurePlacement placement : placements) {
+            placement.getTemplate().send(new StructureBlocksSpawnedEvent(placement.getTransformation()));
+        }
+    }
+
     private void spawnBlocks(EntityRef entity, BlockRegionTransform transformation) {
         long startTime = System.currentTimeMillis();
         GetStructureTemplateBlocksEvent getBlocksEvent =  new GetStructureTemplateBlocksEvent(transformation);
         entity.send(getBlocksEvent);
         Map<Vector3i, Block> blocksToPlace = getBlocksEvent.getBlocksToPlace();
-        worldProvider.setBlocks(blocksToPlace);
+        BlocksByChunk blocksByChunk = new BlocksByChunk();
+        blocksByChunk.putAll(blocksToPlace);
+        int skippedBlocks = placeBlocks(blocksByChunk);
         long endTime = System.currentTimeMillis();
         long delta = endTime - startTime;
         if (delta > 20) {
-            logger.warn("Structure of type {} took {} ms to spawn", entity.getParentPrefab().getName(), delta);
+            logger.warn("Structure of type {} took {} ms to spawn ({} of {} blocks were already present)",
+                    entity.getParentPrefab().getName(), delta, skippedBlocks, blocksByChunk.getBlockCount());
+        }
+    }
+
+    /**
+     * Places the blocks with a single world write. Positions at which the world has already the wanted block get
+     * skipped, so that they cause no change events, lighting updates or network traffic.
+     *
+     * The blocks of chunks that are not loaded get stored in a {@link PendingBlockPatchComponent} and placed once
+     * the chunk gets loaded.
+     *
+     * @return the number of positions that got skipped.
+     */
+    private int placeBlocks(BlocksByChunk blocksByChunk) {
+        SpawnUndoJournal.Entry undoEntry = recordSpawnsForUndo ? undoJournal.startEntry() : null;
+        Map<Vector3i, Block> changedBlocks = new HashMap<>();
+        int skippedBlocks = 0;
+        for (Vector3i chunkPos : blocksByChunk.getChunkPositions()) {
+            Map<Vector3i, Block> blocksOfChunk = blocksByChunk.getBlocksOfChunk(chunkPos);
+            if (blocksOfChunk.isEmpty()) {
+                continue;
+            }
+            if (!worldProvider.isBlockRelevant(blocksOfChunk.keySet().iterator().next())) {
+                addPendingBlocks(chunkPos, blocksOfChunk);
+                continue;
+            }
+            skippedBlocks += addChangedBlocksOfChunk(blocksOfChunk, changedBlocks, undoEntry);
+        }
+        if (!changedBlocks.isEmpty()) {
+            worldProvider.setBlocks(changedBlocks);
+        }
+        if (undoEntry != null && undoEntry.getChunkCount() > 0) {
+            undoJournal.add(undoEntry);
+        }
+        logger.debug("Skipped {} of {} block placements as the blocks were already present", skippedBlocks,
+                blocksByChunk.getBlockCount());
+        return skippedBlocks;
+    }
+
+    /**
+     * Adds the blocks of the chunk that differ from the world to changedBlocks.
+     *
+     * @return the number of positions that had already the wanted block.
+     */
+    private int addChangedBlocksOfChunk(Map<Vector3i, Block> blocksOfChunk, Map<Vector3i, Block> changedBlocks,
+                                        SpawnUndoJournal.Entry undoEntry) {
+        List<Vector3i> changedPositions = new ArrayList<>();
+        for (Map.Entry<Vector3i, Block> entry : blocksOfChunk.entrySet()) {
+            if (worldProvider.getBlock(entry.getKey()) != entry.getValue()) {
+                changedPositions.add(entry.getKey());
+                changedBlocks.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (undoEntry != null && !changedPositions.isEmpty()) {
+            undoEntry.recordChunk(changedPositions, worldProvider::getBlock);
+        }
+        return blocksOfChunk.size() - changedPositions.size();
+    }
+
+    private void addPendingBlocks(Vector3i chunkPos, Map<Vector3i, Block> blocksOfChunk) {
+        EntityRef entity = pendingBlockPatches.getOrDefault(chunkPos, EntityRef.NULL);
+        PendingBlockPatchComponent component = entity.getComponent(PendingBlockPatchComponent.class);
+        if (component == null) {
+            component = new PendingBlockPatchComponent();
+            component.chunkPosition = new Vector3i(chunkPos);
+            PendingBlockPatches.add(component, blocksOfChunk);
+            EntityBuilder entityBuilder = entityManager.newBuilder();
+            entityBuilder.setPersistent(true);
+            entityBuilder.addComponent(component);
+            pendingBlockPatches.put(component.chunkPosition, entityBuilder.build());
+        } else {
+            PendingBlockPatches.add(component, blocksOfChunk);
+            entity.saveComponent(component);
         }
     }
 
+    /**
+     * Runs before other systems react to the chunk, so that they find the structure blocks in it.
+     *
+     * When spawns get recorded, the placed blocks of the chunk become an undo entry of their own.
+     */
+    @ReceiveEvent(priority = EventPriority.PRIORITY_HIGH)
+    public void onChunkLoaded(OnChunkLoaded event, EntityRef worldEntity) {
+        EntityRef entity = pendingBlockPatches.remove(event.getChunkPos());
+        if (entity == null) {
+            return;
+        }
+        PendingBlockPatchComponent component = entity.getComponent(PendingBlockPatchComponent.class);
+        entity.destroy();
+        if (component == null) {
+            return;
+        }
+        Map<Vector3i, Block> pendingBlocks = PendingBlockPatches.toBlockMap(component);
+        SpawnUndoJournal.Entry undoEntry = recordSpawnsForUndo ? undoJournal.startEntry() : null;
+        Map<Vector3i, Block> changedBlocks = new HashMap<>();
+        addChangedBlocksOfChunk(pendingBlocks, changedBlocks, undoEntry);
+        if (!changedBlocks.isEmpty()) {
+            worldProvider.setBlocks(changedBlocks);
+        }
+        if (undoEntry != null && undoEntry.getChunkCount() > 0) {
+            undoJournal.add(undoEntry);
+        }
+        logger.debug("Placed {} pending structure blocks in chunk {}, {} chunks still have pending blocks",
+                pendingBlocks.size(), event.getChunkPos(), pendingBlockPatches.size());
+    }
+
+    @Command(shortDescription = "Enables or disables the recording of structure spawns for undo",
+            runOnServer = true, requiredPermission = PermissionManager.CHEAT_PERMISSION)
+    public String recordStructureSpawnsForUndo(@CommandParam("enabled") boolean enabled) {
+        recordSpawnsForUndo = enabled;
+        if (!enabled) {
+            undoJournal.clear();
+            return "Structure spawns are no longer recorded";
+        }
+        return "Structure spawns get recorded, the last " + SpawnUndoJournal.DEFAULT_MAX_ENTRIES
+                + " can be undone via undoStructureSpawn";
+    }
+
+    @Command(shortDescription = "Restores the blocks that got overwritten by the last recorded structure spawn",
+            runOnServer = true, requiredPermission = PermissionManager.CHEAT_PERMISSION)
+    public String undoStructureSpawn() {
+        SpawnUndoJournal.Entry undoEntry = undoJournal.removeLatest();
+        if (undoEntry == null) {
+            return "There is no recorded structure spawn to undo";
+        }
+        undoEntry.restore(worldProvider::setBlocks);
+        return "Restored " + undoEntry.getChunkCount() + " chunks, " + undoJournal.size() + " more spawns can be undone";
+    }
+
     @ReceiveEvent(priority = EventPriority.PRIORITY_HIGH)
     public void onSpawnTemplateEventWithBlocksPriority(SpawnTemplateEvent event, EntityRef entity) {
         spawnBlocks(entity, event.getTransformation());
@@ -117,15 +319,50 @@ public class StructureSpawnServerSystem extends BaseComponentSystem {
     public void onGetStructureTemplateBlocks(GetStructureTemplateBlocksEvent event, EntityRef entity,
                                              SpawnBlockRegionsComponent spawnBlockRegionComponent) {
         BlockRegionTransform transformation = event.getTransformation();
+        HorizontalRotationAndMovement rotationAndMovement = HorizontalRotationAndMovement.tryDecompose(transformation);
+        if (rotationAndMovement == null) {
+            BlockRegionUtilities.addBlocksOfRegions(spawnBlockRegionComponent, event);
+            return;
+        }
+        int rotation = Math.floorMod(rotationAndMovement.getCounterClockWiseHorizontal90DegreeRotations(), 4);
+        RotatedTemplateVariant variant = getRotatedVariant(entity, spawnBlockRegionComponent, rotation);
+        variant.addBlocks(event, rotationAndMovement.getOffset());
+    }
 
-        for (RegionToFill regionToFill : spawnBlockRegionComponent.regionsToFill) {
-            Block block = regionToFill.blockType;
+    /**
+     * The rotated variants get built on demand and are cached for the most recently spawned templates.
+     */
+    private RotatedTemplateVariant getRotatedVariant(EntityRef entity, SpawnBlockRegionsComponent component,
+                                                     int rotation) {
+        RotatedVariantsOfTemplate variants = rotatedVariantsCache.get(entity);
+        if (variants == null || variants.component != component) {
+            variants = new RotatedVariantsOfTemplate(component);
+            rotatedVariantsCache.put(entity, variants);
+        }
+        if (variants.variantsByRotation[rotation] == null) {
+            variants.variantsByRotation[rotation] = RotatedTemplateVariant.create(component, rotation);
+        }
+        return variants.variantsByRotation[rotation];
+    }
+
+    @ReceiveEvent
+    public void onSpawnBlockRegionsChanged(OnChangedComponent event, EntityRef entity,
+                                           SpawnBlockRegionsComponent component) {
+        rotatedVariantsCache.remove(entity);
+    }
+
+    @ReceiveEvent
+    public void onSpawnBlockRegionsRemoved(BeforeDeactivateComponent event, EntityRef entity,
+                                           SpawnBlockRegionsComponent component) {
+        rotatedVariantsCache.remove(entity);
+    }
 
-            Region3i region = regionToFill.region;
-            region = transformation.transformRegion(region);
-            block = transformation.transformBlock(block);
+    private static final class RotatedVariantsOfTemplate {
+        private final SpawnBlockRegionsComponent component;
+        private final RotatedTemplateVariant[] variantsByRotation = new RotatedTemplateVariant[4];
 
-            event.fillRegion(region, block);
+        private RotatedVariantsOfTemplate(SpawnBlockRegionsComponent component) {
+            this.component = component;
         }
     }
 
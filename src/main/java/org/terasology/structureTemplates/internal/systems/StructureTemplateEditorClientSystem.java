@@ -15,7 +15,6 @@
  */
 package org.terasology.structureTemplates.internal.systems;
 
-import org.terasology.entitySystem.entity.EntityBuilder;
 import org.terasology.entitySystem.entity.EntityManager;
 import org.terasology.entitySystem.entity.EntityRef;
 import org.terasology.entitySystem.entity.lifecycleEvents.BeforeRemoveComponent;
@@ -29,13 +28,13 @@ import org.terasology.logic.clipboard.ClipboardManager;
 import org.terasology.logic.inventory.InventoryManager;
 import org.terasology.logic.players.LocalPlayer;
 import org.terasology.math.Region3i;
-import org.terasology.math.geom.Vector3i;
 import org.terasology.registry.In;
-import org.terasology.rendering.logic.RegionOutlineComponent;
+import org.terasology.rendering.nui.Color;
 import org.terasology.structureTemplates.internal.components.EditTemplateRegionProcessComponent;
 import org.terasology.structureTemplates.internal.components.EditingUserComponent;
 import org.terasology.structureTemplates.internal.components.StructureTemplateOriginComponent;
 import org.terasology.structureTemplates.internal.events.CopyBlockRegionResultEvent;
+import org.terasology.structureTemplates.util.RegionOutlinePool;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -59,10 +58,15 @@ public class StructureTemplateEditorClientSystem extends BaseComponentSystem {
     @In
     private InventoryManager inventoryManager;
 
-    private List<EntityRef> regionOutlineEntities = new ArrayList<>();
+    private RegionOutlinePool regionOutlinePool;
     private EntityRef highlightedEditorEntity = EntityRef.NULL;
 
 
+    @Override
+    public void initialise() {
+        regionOutlinePool = new RegionOutlinePool(entityManager);
+    }
+
     @ReceiveEvent
     public void onCopyBlockRegionResultEvent(CopyBlockRegionResultEvent event, EntityRef entity) {
         clipboardManager.setClipboardContents(event.getJson());
@@ -111,26 +115,12 @@ public class StructureTemplateEditorClientSystem extends BaseComponentSystem {
     }
 
     public void destoryOutlineEntities() {
-        for (EntityRef regionOutlineEntity : regionOutlineEntities) {
-            if (regionOutlineEntity.exists()) {
-                regionOutlineEntity.destroy();
-            }
-        }
+        regionOutlinePool.clear();
     }
 
     public void updateOutlineEntities() {
-            List<Region3i> regionsToDraw = getRegionsToDraw();
-        destoryOutlineEntities();
-
-        for (Region3i regionToDraw: regionsToDraw) {
-            EntityBuilder entityBuilder = entityManager.newBuilder();
-            entityBuilder.setPersistent(false);
-            RegionOutlineComponent regionOutlineComponent = new RegionOutlineComponent();
-            regionOutlineComponent.corner1 = new Vector3i(regionToDraw.min());
-            regionOutlineComponent.corner2 = new Vector3i(regionToDraw.max());
-            entityBuilder.addComponent(regionOutlineComponent);
-            regionOutlineEntities.add(entityBuilder.build());
-        }
+        List<Region3i> regionsToDraw = getRegionsToDraw();
+        regionOutlinePool.showRegions(regionsToDraw, Color.WHITE);
     }
 
 
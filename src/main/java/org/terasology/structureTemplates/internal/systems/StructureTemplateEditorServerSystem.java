@@ -47,6 +47,7 @@ import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent.R
 import org.terasology.structureTemplates.components.SpawnTemplateActionComponent;
 import org.terasology.structureTemplates.components.StructureTemplateComponent;
 import org.terasology.structureTemplates.events.BuildStructureTemplateEntityEvent;
+import org.terasology.structureTemplates.events.PlaceBlockRegions;
 import org.terasology.structureTemplates.events.SpawnTemplateEvent;
 import org.terasology.structureTemplates.internal.components.EditTemplateRegionProcessComponent;
 import org.terasology.structureTemplates.internal.components.EditingUserComponent;
@@ -59,10 +60,12 @@ import org.terasology.structureTemplates.internal.events.CreateEditTemplateRegio
 import org.terasology.structureTemplates.internal.events.CreateStructureSpawnItemRequest;
 import org.terasology.structureTemplates.internal.events.CreateStructureTemplateItemRequest;
 import org.terasology.structureTemplates.internal.events.MakeBoxShapedRequest;
+import org.terasology.structureTemplates.internal.events.PlaceBlocksOfBlockRegions;
 import org.terasology.structureTemplates.internal.events.RequestStructurePlaceholderPrefabSelection;
 import org.terasology.structureTemplates.internal.events.RequestStructureTemplatePropertiesChange;
 import org.terasology.structureTemplates.internal.events.StopEditingProcessRequest;
 import org.terasology.structureTemplates.internal.events.StructureTemplateStringRequest;
+import org.terasology.structureTemplates.util.BlockRegionUtilities;
 import org.terasology.structureTemplates.util.ListUtil;
 import org.terasology.structureTemplates.util.RegionMergeUtil;
 import org.terasology.structureTemplates.util.transform.BlockRegionMovement;
@@ -100,7 +103,7 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
     private static final Comparator<RegionToFill> REGION_BY_MIN_X_COMPARATOR = Comparator.comparing(r -> r.region.minX());
     private static final Comparator<RegionToFill> REGION_BY_MIN_Y_COMPARATOR = Comparator.comparing(r -> r.region.minY());
     private static final Comparator<RegionToFill> REGION_BY_MIN_Z_COMPARATOR = Comparator.comparing(r -> r.region.minZ());
-    private static final Comparator<RegionToFill> REGION_BY_BLOCK_TYPE_COMPARATOR = Comparator.comparing(r -> r.blockType.getURI().toString());
+    private static final Comparator<RegionToFill> REGION_BY_BLOCK_INDEX_COMPARATOR = Comparator.comparingInt(r -> r.blockIndex);
     private static final Logger LOGGER = LoggerFactory.getLogger(StructureTemplateEditorServerSystem.class);
 
     @In
@@ -163,6 +166,10 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
 
     @ReceiveEvent
     public void updateCopyRegionOnBlockPlacement(PlaceBlocks placeBlocks, EntityRef world) {
+        if (placeBlocks instanceof PlaceBlocksOfBlockRegions) {
+            // got recorded already as PlaceBlockRegions event
+            return;
+        }
         EntityRef player = placeBlocks.getInstigator().getOwner();
         EditingUserComponent editingUserComponent = player.getComponent(EditingUserComponent.class);
         if (editingUserComponent == null) {
@@ -187,6 +194,36 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
         }
     }
 
+    @ReceiveEvent
+    public void updateCopyRegionOnBlockRegionPlacement(PlaceBlockRegions placeBlockRegions, EntityRef world) {
+        EntityRef player = placeBlockRegions.getInstigator().getOwner();
+        EditingUserComponent editingUserComponent = player.getComponent(EditingUserComponent.class);
+        if (editingUserComponent == null) {
+            return;
+        }
+
+        EntityRef editProcessEntity = editingUserComponent.editProcessEntity;
+        EditTemplateRegionProcessComponent editTemplateRegionProcessComponent = editProcessEntity.getComponent(EditTemplateRegionProcessComponent.class);
+        if (editTemplateRegionProcessComponent == null) {
+            return;
+        }
+        EntityRef editorEnitity = editTemplateRegionProcessComponent.structureTemplateEditor;
+        StructureTemplateOriginComponent editorComponent = editorEnitity.getComponent(StructureTemplateOriginComponent.class);
+        if (editorComponent == null) {
+            return; // can happen if entity got destroyed
+        }
+        List<Region3i> placedRegions = new ArrayList<>();
+        for (RegionToFill regionToFill : placeBlockRegions.getRegions()) {
+            placedRegions.add(regionToFill.region);
+        }
+        if (editTemplateRegionProcessComponent.recordBlockAddition) {
+            addRegionsToTemplate(placedRegions, editorEnitity, editorComponent);
+        }
+        if (editTemplateRegionProcessComponent.recordBlockRemoval && !editTemplateRegionProcessComponent.recordBlockAddition) {
+            removeRegionsFromTemplate(placedRegions, editorEnitity, editorComponent);
+        }
+    }
+
     @ReceiveEvent
     public void onDestroyed(DoDestroyEvent event, EntityRef entity, BlockComponent blockComponent) {
         EntityRef instigator = event.getInstigator();
@@ -244,6 +281,62 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
         }
     }
 
+    private void addRegionsToTemplate(List<Region3i> regions, EntityRef templateEntity,
+                                      StructureTemplateOriginComponent templateComponent) {
+        List<Region3i> originalRegions = templateComponent.absoluteTemplateRegions;
+        boolean allCovered = true;
+        for (Region3i region : regions) {
+            if (!isCoveredBy(region, originalRegions)) {
+                allCovered = false;
+                break;
+            }
+        }
+        if (allCovered) {
+            return;
+        }
+        List<Region3i> newTemplateRegions = new ArrayList<>(originalRegions);
+        for (Region3i region : regions) {
+            newTemplateRegions = RegionMergeUtil.subtractRegion(newTemplateRegions, region);
+            newTemplateRegions.add(region);
+        }
+        RegionMergeUtil.mergeRegions(newTemplateRegions);
+        templateComponent.absoluteTemplateRegions = newTemplateRegions;
+        templateEntity.saveComponent(templateComponent);
+    }
+
+    private void removeRegionsFromTemplate(List<Region3i> regions, EntityRef templateEntity,
+                                           StructureTemplateOriginComponent templateComponent) {
+        List<Region3i> newTemplateRegions = templateComponent.absoluteTemplateRegions;
+        for (Region3i region : regions) {
+            newTemplateRegions = RegionMergeUtil.subtractRegion(newTemplateRegions, region);
+        }
+        if (newTemplateRegions.size() == templateComponent.absoluteTemplateRegions.size()
+                && newTemplateRegions.equals(templateComponent.absoluteTemplateRegions)) {
+            return;
+        }
+        RegionMergeUtil.mergeRegions(newTemplateRegions);
+        templateComponent.absoluteTemplateRegions = newTemplateRegions;
+        templateEntity.saveComponent(templateComponent);
+    }
+
+    /**
+     * @param regions must not overlap each other.
+     */
+    private static boolean isCoveredBy(Region3i region, List<Region3i> regions) {
+        int coveredVolume = 0;
+        for (Region3i other : regions) {
+            Region3i intersection = region.intersect(other);
+            if (!intersection.isEmpty()) {
+                coveredVolume += volumeOf(intersection);
+            }
+        }
+        return coveredVolume == volumeOf(region);
+    }
+
+    private static int volumeOf(Region3i region) {
+        return region.sizeX() * region.sizeY() * region.sizeZ();
+    }
+
     @ReceiveEvent
     public void onRequestStructurePlaceholderPrefabSelection(RequestStructurePlaceholderPrefabSelection event, EntityRef characterEntity,
                                                              CharacterComponent characterComponent) {
@@ -399,9 +492,8 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
     public void onBuildTemplateWithBlockRegions(BuildStructureTemplateEntityEvent event, EntityRef entity,
                                                 StructureTemplateOriginComponent structureTemplateOriginComponent) {
         BlockRegionTransform transformToRelative = event.getTransformToRelative();
-        SpawnBlockRegionsComponent spawnBlockRegionsComponent = new SpawnBlockRegionsComponent();
-        spawnBlockRegionsComponent.regionsToFill = createRegionsToFill(structureTemplateOriginComponent,
-                transformToRelative);
+        SpawnBlockRegionsComponent spawnBlockRegionsComponent = createSpawnBlockRegionsComponent(
+                structureTemplateOriginComponent, transformToRelative);
         MutableComponentContainer templateEntity = event.getTemplateEntity();
         templateEntity.addOrSaveComponent(spawnBlockRegionsComponent);
     }
@@ -468,6 +560,15 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
                                                SpawnBlockRegionsComponent component) {
         StringBuilder sb = new StringBuilder();
         sb.append("    \"SpawnBlockRegions\": {\n");
+        if (component.blockPalette != null && !component.blockPalette.isEmpty()) {
+            sb.append("        \"blockPalette\": [\n");
+            ListUtil.visitList(component.blockPalette, (Block block, boolean last) -> {
+                sb.append("            \"");
+                sb.append(block);
+                sb.append(last ? "\"\n" : "\",\n");
+            });
+            sb.append("        ],\n");
+        }
         sb.append("        \"regionsToFill\": [\n");
         sb.append(formatAsString(component.regionsToFill));
         sb.append("        ]\n");
@@ -609,8 +710,8 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
     }
 
 
-    private List<RegionToFill> createRegionsToFill(StructureTemplateOriginComponent structureTemplateOriginComponent,
-                                                   BlockRegionTransform transformToRelative) {
+    private SpawnBlockRegionsComponent createSpawnBlockRegionsComponent(
+            StructureTemplateOriginComponent structureTemplateOriginComponent, BlockRegionTransform transformToRelative) {
         List<Region3i> absoluteRegions = structureTemplateOriginComponent.absoluteTemplateRegions;
 
         List<RegionToFill> regionsToFill = new ArrayList<>();
@@ -639,9 +740,12 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
             }
         }
         RegionMergeUtil.mergeRegionsToFill(regionsToFill);
-        regionsToFill.sort(REGION_BY_BLOCK_TYPE_COMPARATOR.thenComparing(REGION_BY_MIN_Z_COMPARATOR)
+        SpawnBlockRegionsComponent spawnBlockRegionsComponent = new SpawnBlockRegionsComponent();
+        spawnBlockRegionsComponent.blockPalette = BlockRegionUtilities.moveBlockTypesIntoPalette(regionsToFill);
+        regionsToFill.sort(REGION_BY_BLOCK_INDEX_COMPARATOR.thenComparing(REGION_BY_MIN_Z_COMPARATOR)
                 .thenComparing(REGION_BY_MIN_X_COMPARATOR).thenComparing(REGION_BY_MIN_Y_COMPARATOR));
-        return regionsToFill;
+        spawnBlockRegionsComponent.regionsToFill = regionsToFill;
+        return spawnBlockRegionsComponent;
     }
 
 
@@ -671,9 +775,15 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
     static String formatAsString(List<RegionToFill> regionsToFill) {
         StringBuilder sb = new StringBuilder();
         ListUtil.visitList(regionsToFill, (RegionToFill regionToFill, boolean last) -> {
-            sb.append("            { \"blockType\": \"");
-            sb.append(regionToFill.blockType);
-            sb.append("\", \"region\": { \"min\": [");
+            if (regionToFill.blockIndex != null) {
+                sb.append("            { \"blockIndex\": ");
+                sb.append(regionToFill.blockIndex);
+            } else {
+                sb.append("            { \"blockType\": \"");
+                sb.append(regionToFill.blockType);
+                sb.append("\"");
+            }
+            sb.append(", \"region\": { \"min\": [");
             sb.append(regionToFill.region.minX());
             sb.append(", ");
             sb.append(regionToFill.region.minY());
@@ -821,9 +931,13 @@ public class StructureTemplateEditorServerSystem extends BaseComponentSystem {
         HorizontalBlockFamily horizontalBlockFamily = (HorizontalBlockFamily) blockFamily;
         Block block = horizontalBlockFamily.getBlockForSide(frontDirectionOfStructure);
 
-        PlaceBlocks placeBlocks = new PlaceBlocks(position, block, event.getInstigator());
-        worldProvider.getWorldEntity().send(placeBlocks);
-        return !placeBlocks.isConsumed();
+        RegionToFill regionToFill = new RegionToFill();
+        regionToFill.region = Region3i.createFromMinMax(position, position);
+        regionToFill.blockType = block;
+        PlaceBlockRegions placeBlockRegions = new PlaceBlockRegions(Collections.singletonList(regionToFill),
+                event.getInstigator());
+        worldProvider.getWorldEntity().send(placeBlockRegions);
+        return !placeBlockRegions.isConsumed();
     }
 
 }
@@ -33,6 +33,9 @@ import org.terasology.registry.Share;
 import org.terasology.structureTemplates.components.StructureTemplateComponent;
 import org.terasology.structureTemplates.components.StructureTemplateTypeComponent;
 import org.terasology.structureTemplates.interfaces.StructureTemplateProvider;
+import org.terasology.structureTemplates.internal.events.SpawnStructureBatchEvent;
+import org.terasology.structureTemplates.util.StructurePlacement;
+import org.terasology.world.WorldProvider;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -61,6 +64,9 @@ public class StructureTemplateProviderSystem extends BaseComponentSystem impleme
     @In
     private AssetManager assetManager;
 
+    @In
+    private WorldProvider worldProvider;
+
     private Map<ResourceUrn, List<EntityChanceTuple>> structureTypeToEntitiesMap;
 
     @Override
@@ -173,6 +179,11 @@ public class StructureTemplateProviderSystem extends BaseComponentSystem impleme
         return new StructureTemplateIterator(entityChanceTuples);
     }
 
+    @Override
+    public void spawnStructures(List<StructurePlacement> placements) {
+        worldProvider.getWorldEntity().send(new SpawnStructureBatchEvent(placements));
+    }
+
     private class StructureTemplateIterator implements Iterator<EntityRef> {
         private List<EntityChanceTuple> remaining;
         /**
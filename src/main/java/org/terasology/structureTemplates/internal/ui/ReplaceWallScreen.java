@@ -28,6 +28,7 @@ import org.terasology.rendering.nui.databinding.Binding;
 import org.terasology.rendering.nui.widgets.UIButton;
 import org.terasology.rendering.nui.widgets.UIDropdown;
 import org.terasology.rendering.nui.widgets.UIDropdownScrollable;
+import org.terasology.structureTemplates.components.WallPreviewComponent;
 import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent;
 import org.terasology.structureTemplates.internal.events.ReplaceBlocksRequest;
 import org.terasology.world.block.BlockExplorer;
@@ -124,7 +125,12 @@ public class ReplaceWallScreen extends BaseInteractionScreen {
     }
 
     private void onPlaceWallButton(UIWidget button) {
-        getInteractionTarget().send(new ReplaceBlocksRequest());
+        EntityRef item = getInteractionTarget();
+        WallPreviewComponent wallPreviewComponent = item.getComponent(WallPreviewComponent.class);
+        if (wallPreviewComponent != null && wallPreviewComponent.startPosition != null
+                && wallPreviewComponent.facing != null) {
+            item.send(new ReplaceBlocksRequest(wallPreviewComponent.startPosition, wallPreviewComponent.facing));
+        }
         getManager().popScreen();
     }
 
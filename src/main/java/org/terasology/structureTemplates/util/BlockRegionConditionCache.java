@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.assets.ResourceUrn;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Remembers the results of block region condition checks. A result is stored for a condition prefab, the absolute
+ * region that got checked and the rotation of the check (as the blocks get rotated before the condition is tested).
+ *
+ * The results of a chunk must be invalidated via {@link #invalidateChunk(Vector3i)} or
+ * {@link #invalidateBlock(Vector3i)} whenever the blocks in it change, get loaded or get unloaded.
+ *
+ * The least recently used results get dropped when more than the maximum amount of results are stored.
+ */
+public class BlockRegionConditionCache {
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Boolean> results = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Vector3i, Set<Key>> keysByChunk = new HashMap<>();
+
+    public BlockRegionConditionCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public BlockRegionConditionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return the cached result or null if there is none.
+     */
+    public Boolean get(ResourceUrn condition, Region3i absoluteRegion, Side rotation) {
+        return results.get(new Key(condition, absoluteRegion, rotation));
+    }
+
+    public void put(ResourceUrn condition, Region3i absoluteRegion, Side rotation, boolean result) {
+        Key key = new Key(condition, absoluteRegion, rotation);
+        if (results.put(key, result) == null) {
+            for (Vector3i chunkPos : getChunkRegion(absoluteRegion)) {
+                keysByChunk.computeIfAbsent(new Vector3i(chunkPos), pos -> new HashSet<>()).add(key);
+            }
+        }
+        if (results.size() > maxEntries) {
+            Iterator<Key> iterator = results.keySet().iterator();
+            Key eldest = iterator.next();
+            iterator.remove();
+            removeFromChunkIndex(eldest);
+        }
+    }
+
+    public void invalidateBlock(Vector3i blockPos) {
+        invalidateChunk(ChunkMath.calcChunkPos(blockPos));
+    }
+
+    public void invalidateChunk(Vector3i chunkPos) {
+        Set<Key> keys = keysByChunk.remove(chunkPos);
+        if (keys == null) {
+            return;
+        }
+        for (Key key : keys) {
+            results.remove(key);
+            removeFromChunkIndex(key);
+        }
+    }
+
+    public void clear() {
+        results.clear();
+        keysByChunk.clear();
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    private void removeFromChunkIndex(Key key) {
+        for (Vector3i chunkPos : getChunkRegion(key.region)) {
+            Set<Key> keysOfChunk = keysByChunk.get(chunkPos);
+            if (keysOfChunk != null) {
+                keysOfChunk.remove(key);
+                if (keysOfChunk.isEmpty()) {
+                    keysByChunk.remove(chunkPos);
+                }
+            }
+        }
+    }
+
+    private static Region3i getChunkRegion(Region3i blockRegion) {
+        return Region3i.createFromMinMax(ChunkMath.calcChunkPos(blockRegion.min()),
+                ChunkMath.calcChunkPos(blockRegion.max()));
+    }
+
+    private static final class Key {
+        private final ResourceUrn condition;
+        private final Region3i region;
+        private final Side rotation;
+
+        private Key(ResourceUrn condition, Region3i region, Side rotation) {
+            this.condition = condition;
+            this.region = region;
+            this.rotation = rotation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return rotation == other.rotation && condition.equals(other.condition) && region.equals(other.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(condition, region, rotation);
+        }
+    }
+}
@@ -19,8 +19,16 @@ import org.terasology.math.Region3i;
 import org.terasology.math.geom.Vector3f;
 import org.terasology.math.geom.Vector3i;
 import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
+import org.terasology.structureTemplates.events.GetStructureTemplateBlocksEvent;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
+import org.terasology.world.block.Block;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class BlockRegionUtilities {
 
@@ -68,4 +76,76 @@ public class BlockRegionUtilities {
         }
         return Region3i.createFromMinMax(min, max);
     }
+
+    /**
+     * Adds the transformed blocks of the regions to the event.
+     */
+    public static void addBlocksOfRegions(SpawnBlockRegionsComponent spawnBlockRegionsComponent,
+                                          GetStructureTemplateBlocksEvent event) {
+        Block[] transformedBlocks = transformBlocksOfRegions(spawnBlockRegionsComponent, event.getTransformation());
+        addBlocksOfRegions(spawnBlockRegionsComponent, event, transformedBlocks);
+    }
+
+    /**
+     * Adds the regions to the event, filled with the blocks previously determined via
+     * {@link #transformBlocksOfRegions(SpawnBlockRegionsComponent, BlockRegionTransform)}.
+     */
+    public static void addBlocksOfRegions(SpawnBlockRegionsComponent spawnBlockRegionsComponent,
+                                          GetStructureTemplateBlocksEvent event, Block[] transformedBlocks) {
+        BlockRegionTransform transformation = event.getTransformation();
+        List<SpawnBlockRegionsComponent.RegionToFill> regionsToFill = spawnBlockRegionsComponent.regionsToFill;
+        for (int i = 0; i < regionsToFill.size(); i++) {
+            Region3i region = transformation.transformRegion(regionsToFill.get(i).region);
+            event.fillRegion(region, transformedBlocks[i]);
+        }
+    }
+
+    /**
+     * Each distinct block of the template gets transformed only once.
+     *
+     * @return the transformed block of each region, in the order of the regions.
+     */
+    public static Block[] transformBlocksOfRegions(SpawnBlockRegionsComponent spawnBlockRegionsComponent,
+                                                   BlockRegionTransform transformation) {
+        List<Block> palette = spawnBlockRegionsComponent.blockPalette;
+        Block[] transformedPalette = new Block[palette != null ? palette.size() : 0];
+        for (int i = 0; i < transformedPalette.length; i++) {
+            transformedPalette[i] = transformation.transformBlock(palette.get(i));
+        }
+        Map<Block, Block> transformedBlockTypes = new IdentityHashMap<>();
+        List<SpawnBlockRegionsComponent.RegionToFill> regionsToFill = spawnBlockRegionsComponent.regionsToFill;
+        Block[] transformedBlocks = new Block[regionsToFill.size()];
+        for (int i = 0; i < transformedBlocks.length; i++) {
+            SpawnBlockRegionsComponent.RegionToFill regionToFill = regionsToFill.get(i);
+            if (regionToFill.blockIndex != null) {
+                transformedBlocks[i] = transformedPalette[regionToFill.blockIndex];
+            } else {
+                transformedBlocks[i] = transformedBlockTypes.computeIfAbsent(regionToFill.blockType,
+                        transformation::transformBlock);
+            }
+        }
+        return transformedBlocks;
+    }
+
+    /**
+     * Replaces the block types of the regions with indices into the returned palette. The palette is sorted by
+     * block URI, so that the indices are stable for the same set of blocks. All regions must have a block type.
+     */
+    public static List<Block> moveBlockTypesIntoPalette(List<SpawnBlockRegionsComponent.RegionToFill> regionsToFill) {
+        Map<Block, String> uriOfBlock = new HashMap<>();
+        for (SpawnBlockRegionsComponent.RegionToFill regionToFill : regionsToFill) {
+            uriOfBlock.computeIfAbsent(regionToFill.blockType, block -> block.getURI().toString());
+        }
+        List<Block> palette = new ArrayList<>(uriOfBlock.keySet());
+        palette.sort(Comparator.comparing(uriOfBlock::get));
+        Map<Block, Integer> indexOfBlock = new HashMap<>();
+        for (int i = 0; i < palette.size(); i++) {
+            indexOfBlock.put(palette.get(i), i);
+        }
+        for (SpawnBlockRegionsComponent.RegionToFill regionToFill : regionsToFill) {
+            regionToFill.blockIndex = indexOfBlock.get(regionToFill.blockType);
+            regionToFill.blockType = null;
+        }
+        return palette;
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.ChunkMath;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups blocks that should be placed by the chunk they are in. This allows the blocks to be checked against the
+ * world chunk by chunk, e.g. to find out which chunks are not loaded yet.
+ *
+ * When a block gets added for a position that has already a block, the later one replaces the earlier one.
+ */
+public class BlocksByChunk {
+    private final Map<Vector3i, Map<Vector3i, Block>> chunkToBlocksMap = new LinkedHashMap<>();
+    private int blockCount;
+
+    public void put(Vector3i position, Block block) {
+        Vector3i chunkPos = ChunkMath.calcChunkPos(position);
+        Map<Vector3i, Block> blocksOfChunk = chunkToBlocksMap.computeIfAbsent(chunkPos, pos -> new LinkedHashMap<>());
+        if (blocksOfChunk.put(position, block) == null) {
+            blockCount++;
+        }
+    }
+
+    public void putAll(Map<Vector3i, Block> blocks) {
+        for (Map.Entry<Vector3i, Block> entry : blocks.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public Set<Vector3i> getChunkPositions() {
+        return chunkToBlocksMap.keySet();
+    }
+
+    /**
+     * @return the blocks to place in the chunk. The returned map is backed by this object.
+     */
+    public Map<Vector3i, Block> getBlocksOfChunk(Vector3i chunkPos) {
+        Map<Vector3i, Block> blocksOfChunk = chunkToBlocksMap.get(chunkPos);
+        if (blocksOfChunk == null) {
+            return new LinkedHashMap<>();
+        }
+        return blocksOfChunk;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+
+/**
+ * Summary of the block properties of a single chunk. It knows how many penetrable and how many liquid blocks a chunk
+ * contains. The number of solid blocks is the number of blocks that are not penetrable.
+ *
+ * For counting the blocks within a part of the chunk, each column of the chunk has prefix sums along the y axis. So
+ * a count costs one lookup per column of the box, and a block change only updates the prefix sums of its column via
+ * {@link #onBlockChanged(Vector3i, Block, Block)}.
+ */
+public class ChunkBlockSummary {
+    private static final int SIZE_X = ChunkConstants.SIZE_X;
+    private static final int SIZE_Y = ChunkConstants.SIZE_Y;
+    private static final int SIZE_Z = ChunkConstants.SIZE_Z;
+    private static final int VOLUME = SIZE_X * SIZE_Y * SIZE_Z;
+
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+
+    private int penetrableCount;
+    private int liquidCount;
+
+    /**
+     * Prefix sums along the y axis with an extra leading zero per column.
+     */
+    private final int[] penetrableColumnSums = new int[SIZE_X * SIZE_Z * (SIZE_Y + 1)];
+    private final int[] liquidColumnSums = new int[SIZE_X * SIZE_Z * (SIZE_Y + 1)];
+
+    /**
+     * Provides the blocks of the world, e.g. via the getBlock(int, int, int) method of the world provider.
+     */
+    @FunctionalInterface
+    public interface BlockLookup {
+        Block getBlock(int x, int y, int z);
+    }
+
+    private ChunkBlockSummary(Vector3i chunkPos) {
+        this.originX = chunkPos.x * SIZE_X;
+        this.originY = chunkPos.y * SIZE_Y;
+        this.originZ = chunkPos.z * SIZE_Z;
+    }
+
+    /**
+     * Reads all blocks of the chunk once to create the summary.
+     */
+    public static ChunkBlockSummary create(Vector3i chunkPos, BlockLookup blockLookup) {
+        ChunkBlockSummary summary = new ChunkBlockSummary(chunkPos);
+        summary.buildColumnSums(blockLookup);
+        return summary;
+    }
+
+    public static int getChunkVolume() {
+        return VOLUME;
+    }
+
+    public int getPenetrableCount() {
+        return penetrableCount;
+    }
+
+    public int getLiquidCount() {
+        return liquidCount;
+    }
+
+    public int getSolidCount() {
+        return VOLUME - penetrableCount;
+    }
+
+    /**
+     * Updates the summary for a block change at the given absolute position within this chunk.
+     */
+    public void onBlockChanged(Vector3i blockPos, Block oldType, Block newType) {
+        int penetrableDelta = (newType.isPenetrable() ? 1 : 0) - (oldType.isPenetrable() ? 1 : 0);
+        int liquidDelta = (newType.isLiquid() ? 1 : 0) - (oldType.isLiquid() ? 1 : 0);
+        if (penetrableDelta == 0 && liquidDelta == 0) {
+            return;
+        }
+        penetrableCount += penetrableDelta;
+        liquidCount += liquidDelta;
+        int x = blockPos.x - originX;
+        int z = blockPos.z - originZ;
+        for (int y = blockPos.y - originY + 1; y <= SIZE_Y; y++) {
+            int index = index(x, y, z);
+            penetrableColumnSums[index] += penetrableDelta;
+            liquidColumnSums[index] += liquidDelta;
+        }
+    }
+
+    /**
+     * Counts the penetrable blocks in the given absolute box. The box must be within this chunk.
+     */
+    public int countPenetrable(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (penetrableCount == 0 || penetrableCount == VOLUME) {
+            return penetrableCount == 0 ? 0 : (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }
+        return sumOfBox(penetrableColumnSums, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Counts the liquid blocks in the given absolute box. The box must be within this chunk.
+     */
+    public int countLiquid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (liquidCount == 0 || liquidCount == VOLUME) {
+            return liquidCount == 0 ? 0 : (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        }
+        return sumOfBox(liquidColumnSums, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    private void buildColumnSums(BlockLookup blockLookup) {
+        for (int x = 0; x < SIZE_X; x++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int y = 1; y <= SIZE_Y; y++) {
+                    Block block = blockLookup.getBlock(originX + x, originY + y - 1, originZ + z);
+                    int penetrable = block.isPenetrable() ? 1 : 0;
+                    int liquid = block.isLiquid() ? 1 : 0;
+                    penetrableCount += penetrable;
+                    liquidCount += liquid;
+                    penetrableColumnSums[index(x, y, z)] = penetrableColumnSums[index(x, y - 1, z)] + penetrable;
+                    liquidColumnSums[index(x, y, z)] = liquidColumnSums[index(x, y - 1, z)] + liquid;
+                }
+            }
+        }
+    }
+
+    private int sumOfBox(int[] columnSums, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int y0 = minY - originY;
+        int y1 = maxY - originY + 1;
+        int sum = 0;
+        for (int x = minX - originX; x <= maxX - originX; x++) {
+            for (int z = minZ - originZ; z <= maxZ - originZ; z++) {
+                sum += columnSums[index(x, y1, z)] - columnSums[index(x, y0, z)];
+            }
+        }
+        return sum;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (x * SIZE_Z + z) * (SIZE_Y + 1) + y;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Stores values with a block position, grouped by the chunk of the position. This makes it cheap to find the values
+ * near a location or within a chunk.
+ *
+ * @param <T> type of the stored values. A value can only be stored once per chunk.
+ */
+public class ChunkIndex<T> {
+    private final Map<Vector3i, Map<T, Vector3i>> valuesByChunk = new HashMap<>();
+    private int size;
+
+    public void add(Vector3i position, T value) {
+        Vector3i chunkPos = ChunkMath.calcChunkPos(position);
+        Map<T, Vector3i> valuesOfChunk = valuesByChunk.computeIfAbsent(chunkPos, pos -> new LinkedHashMap<>());
+        if (valuesOfChunk.put(value, new Vector3i(position)) == null) {
+            size++;
+        }
+    }
+
+    /**
+     * @return true if the value was stored at the given position.
+     */
+    public boolean remove(Vector3i position, T value) {
+        Vector3i chunkPos = ChunkMath.calcChunkPos(position);
+        Map<T, Vector3i> valuesOfChunk = valuesByChunk.get(chunkPos);
+        if (valuesOfChunk == null || valuesOfChunk.remove(value) == null) {
+            return false;
+        }
+        size--;
+        if (valuesOfChunk.isEmpty()) {
+            valuesByChunk.remove(chunkPos);
+        }
+        return true;
+    }
+
+    public List<T> removeAllOfChunk(Vector3i chunkPos) {
+        Map<T, Vector3i> valuesOfChunk = valuesByChunk.remove(chunkPos);
+        if (valuesOfChunk == null) {
+            return Collections.emptyList();
+        }
+        size -= valuesOfChunk.size();
+        return new ArrayList<>(valuesOfChunk.keySet());
+    }
+
+    /**
+     * Removes the values within the given block region for which the filter returns true.
+     *
+     * @return the removed values.
+     */
+    public List<T> removeWithin(Region3i region, BiPredicate<Vector3i, T> filter) {
+        List<T> result = new ArrayList<>();
+        if (size == 0) {
+            return result;
+        }
+        Region3i chunkRegion = Region3i.createFromMinMax(ChunkMath.calcChunkPos(region.min()),
+                ChunkMath.calcChunkPos(region.max()));
+        for (Vector3i chunkPos : chunkRegion) {
+            Map<T, Vector3i> valuesOfChunk = valuesByChunk.get(chunkPos);
+            if (valuesOfChunk == null) {
+                continue;
+            }
+            Iterator<Map.Entry<T, Vector3i>> iterator = valuesOfChunk.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<T, Vector3i> entry = iterator.next();
+                if (region.encompasses(entry.getValue()) && filter.test(entry.getValue(), entry.getKey())) {
+                    iterator.remove();
+                    size--;
+                    result.add(entry.getKey());
+                }
+            }
+            if (valuesOfChunk.isEmpty()) {
+                valuesByChunk.remove(chunkPos);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import java.util.Arrays;
+
+/**
+ * A set of long values that uses open addressing, so that no objects get created per value. The value
+ * {@link Long#MIN_VALUE} can't be stored, which is never a problem for {@link PackedBlockPosition} values.
+ */
+public class LongHashSet {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+    }
+
+    /**
+     * @return true if the value was not in the set before.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE can't be stored");
+        }
+        int index = indexOf(table, value);
+        if (table[index] == value) {
+            return false;
+        }
+        table[index] = value;
+        size++;
+        if (size * 2 > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return value != EMPTY && table[indexOf(table, value)] == value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        int resultIndex = 0;
+        for (long value : table) {
+            if (value != EMPTY) {
+                result[resultIndex++] = value;
+            }
+        }
+        return result;
+    }
+
+    private void grow() {
+        long[] newTable = new long[table.length * 2];
+        Arrays.fill(newTable, EMPTY);
+        for (long value : table) {
+            if (value != EMPTY) {
+                newTable[indexOf(newTable, value)] = value;
+            }
+        }
+        table = newTable;
+    }
+
+    /**
+     * @return the index of the value or of the empty slot where it would be stored.
+     */
+    private static int indexOf(long[] table, long value) {
+        int mask = table.length - 1;
+        long hash = value * 0x9E3779B97F4A7C15L;
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.geom.Vector3i;
+
+/**
+ * Packs block positions into a single long, with 21 bits per coordinate. This allows storing positions without
+ * allocating objects, as long as every coordinate is between -1048576 and 1048575.
+ */
+public final class PackedBlockPosition {
+    private static final long MASK = (1L << 21) - 1;
+
+    private PackedBlockPosition() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((x & MASK) << 42) | ((y & MASK) << 21) | (z & MASK);
+    }
+
+    public static long pack(Vector3i position) {
+        return pack(position.x, position.y, position.z);
+    }
+
+    public static int x(long packed) {
+        return (int) ((packed << 1) >> 43);
+    }
+
+    public static int y(long packed) {
+        return (int) ((packed << 22) >> 43);
+    }
+
+    public static int z(long packed) {
+        return (int) ((packed << 43) >> 43);
+    }
+
+    public static Vector3i unpack(long packed) {
+        return new Vector3i(x(packed), y(packed), z(packed));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.PendingBlockPatchComponent;
+import org.terasology.world.block.Block;
+import org.terasology.world.chunks.ChunkConstants;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads and writes the blocks of a {@link PendingBlockPatchComponent}. The blocks are stored as a sorted array of
+ * positions within the chunk, each combined with an index into a block palette of the chunk.
+ *
+ * When blocks get added for a position that has already a pending block, the later one replaces it, so that a patch
+ * never grows beyond one entry per block of the chunk.
+ */
+public final class PendingBlockPatches {
+    private static final int BYTES_PER_ENTRY = Long.BYTES;
+
+    private PendingBlockPatches() {
+    }
+
+    /**
+     * @param blocks blocks within the chunk of the patch.
+     */
+    public static void add(PendingBlockPatchComponent patch, Map<Vector3i, Block> blocks) {
+        Map<Block, Integer> paletteIndices = new HashMap<>();
+        long[] addedEntries = new long[blocks.size()];
+        int count = 0;
+        for (Map.Entry<Vector3i, Block> entry : blocks.entrySet()) {
+            int indexInChunk = toIndexInChunk(patch.chunkPosition, entry.getKey());
+            Integer paletteIndex = paletteIndices.get(entry.getValue());
+            if (paletteIndex == null) {
+                paletteIndex = patch.palette.indexOf(entry.getValue());
+                if (paletteIndex < 0) {
+                    paletteIndex = patch.palette.size();
+                    patch.palette.add(entry.getValue());
+                }
+                paletteIndices.put(entry.getValue(), paletteIndex);
+            }
+            addedEntries[count++] = createEntry(indexInChunk, paletteIndex);
+        }
+        Arrays.sort(addedEntries);
+        patch.entries = toBytes(merge(readEntries(patch), addedEntries));
+    }
+
+    public static Map<Vector3i, Block> toBlockMap(PendingBlockPatchComponent patch) {
+        long[] entries = readEntries(patch);
+        Map<Vector3i, Block> blocks = new LinkedHashMap<>(entries.length * 4 / 3 + 1);
+        for (long entry : entries) {
+            blocks.put(toWorldPosition(patch.chunkPosition, indexInChunk(entry)), patch.palette.get(paletteIndex(entry)));
+        }
+        return blocks;
+    }
+
+    public static int size(PendingBlockPatchComponent patch) {
+        return patch.entries.length / BYTES_PER_ENTRY;
+    }
+
+    /**
+     * Both arrays must be sorted and free of duplicate positions. For positions in both arrays, the entry of the
+     * added ones is taken.
+     */
+    private static long[] merge(long[] entries, long[] addedEntries) {
+        long[] result = new long[entries.length + addedEntries.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < entries.length && j < addedEntries.length) {
+            int indexInChunk = indexInChunk(entries[i]);
+            int addedIndexInChunk = indexInChunk(addedEntries[j]);
+            if (indexInChunk < addedIndexInChunk) {
+                result[count++] = entries[i++];
+            } else {
+                if (indexInChunk == addedIndexInChunk) {
+                    i++;
+                }
+                result[count++] = addedEntries[j++];
+            }
+        }
+        while (i < entries.length) {
+            result[count++] = entries[i++];
+        }
+        while (j < addedEntries.length) {
+            result[count++] = addedEntries[j++];
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static long createEntry(int indexInChunk, int paletteIndex) {
+        return ((long) indexInChunk << 32) | paletteIndex;
+    }
+
+    private static int indexInChunk(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int paletteIndex(long entry) {
+        return (int) entry;
+    }
+
+    private static int toIndexInChunk(Vector3i chunkPosition, Vector3i position) {
+        int x = position.x - chunkPosition.x * ChunkConstants.SIZE_X;
+        int y = position.y - chunkPosition.y * ChunkConstants.SIZE_Y;
+        int z = position.z - chunkPosition.z * ChunkConstants.SIZE_Z;
+        if (x < 0 || x >= ChunkConstants.SIZE_X || y < 0 || y >= ChunkConstants.SIZE_Y
+                || z < 0 || z >= ChunkConstants.SIZE_Z) {
+            throw new IllegalArgumentException("Position " + position + " is not in chunk " + chunkPosition);
+        }
+        return (y * ChunkConstants.SIZE_Z + z) * ChunkConstants.SIZE_X + x;
+    }
+
+    private static Vector3i toWorldPosition(Vector3i chunkPosition, int indexInChunk) {
+        int x = indexInChunk % ChunkConstants.SIZE_X;
+        int z = indexInChunk / ChunkConstants.SIZE_X % ChunkConstants.SIZE_Z;
+        int y = indexInChunk / (ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z);
+        return new Vector3i(chunkPosition.x * ChunkConstants.SIZE_X + x, chunkPosition.y * ChunkConstants.SIZE_Y + y,
+                chunkPosition.z * ChunkConstants.SIZE_Z + z);
+    }
+
+    private static long[] readEntries(PendingBlockPatchComponent patch) {
+        long[] entries = new long[size(patch)];
+        ByteBuffer.wrap(patch.entries).asLongBuffer().get(entries);
+        return entries;
+    }
+
+    private static byte[] toBytes(long[] entries) {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.length * BYTES_PER_ENTRY);
+        buffer.asLongBuffer().put(entries);
+        return buffer.array();
+    }
+}
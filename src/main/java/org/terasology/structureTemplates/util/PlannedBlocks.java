@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blocks of structures that got planned but not placed yet. Together with the world they describe how the world
+ * will look once the planned structures got spawned.
+ *
+ * Changes can be rolled back in the reverse order they got made.
+ */
+public class PlannedBlocks {
+    private final Map<Vector3i, Block> blocks = new HashMap<>();
+    private final Map<Vector3i, Integer> blockCountsByChunk = new HashMap<>();
+    private final List<Vector3i> changedPositions = new ArrayList<>();
+    private final List<Block> replacedBlocks = new ArrayList<>();
+
+    public void addAll(Map<Vector3i, Block> newBlocks) {
+        for (Map.Entry<Vector3i, Block> entry : newBlocks.entrySet()) {
+            Vector3i position = new Vector3i(entry.getKey());
+            Block replacedBlock = blocks.put(position, entry.getValue());
+            if (replacedBlock == null) {
+                blockCountsByChunk.merge(ChunkMath.calcChunkPos(position), 1, Integer::sum);
+            }
+            changedPositions.add(position);
+            replacedBlocks.add(replacedBlock);
+        }
+    }
+
+    /**
+     * @return the planned block at the position or null if there is none.
+     */
+    public Block getBlock(int x, int y, int z) {
+        return blocks.get(new Vector3i(x, y, z));
+    }
+
+    /**
+     * @return false if there is no planned block within the region. True if there might be one, as the check is only
+     * done per chunk.
+     */
+    public boolean mightIntersect(Region3i region) {
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        Region3i chunkRegion = Region3i.createFromMinMax(ChunkMath.calcChunkPos(region.min()),
+                ChunkMath.calcChunkPos(region.max()));
+        for (Vector3i chunkPos : chunkRegion) {
+            if (blockCountsByChunk.containsKey(chunkPos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of changes made so far, to be passed to {@link #rollback(int)}.
+     */
+    public int getChangeCount() {
+        return changedPositions.size();
+    }
+
+    /**
+     * Undoes the changes made after {@link #getChangeCount()} returned the given value.
+     */
+    public void rollback(int changeCount) {
+        for (int i = changedPositions.size() - 1; i >= changeCount; i--) {
+            Vector3i position = changedPositions.remove(i);
+            Block replacedBlock = replacedBlocks.remove(i);
+            if (replacedBlock != null) {
+                blocks.put(position, replacedBlock);
+                continue;
+            }
+            blocks.remove(position);
+            Vector3i chunkPos = ChunkMath.calcChunkPos(position);
+            int remainingBlocks = blockCountsByChunk.get(chunkPos) - 1;
+            if (remainingBlocks == 0) {
+                blockCountsByChunk.remove(chunkPos);
+            } else {
+                blockCountsByChunk.put(chunkPos, remainingBlocks);
+            }
+        }
+    }
+
+    public int size() {
+        return blocks.size();
+    }
+}
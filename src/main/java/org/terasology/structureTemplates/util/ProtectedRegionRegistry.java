@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent.ProtectedRegion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Keeps protected regions indexed by the chunks they touch and ordered by their expiry time. This makes protection
+ * checks independent of the total number of protected regions and makes finding expired regions cheap.
+ *
+ * Regions get identified by identity. Removed regions stay in the expiry queue till they would expire, as removing
+ * them from the queue right away would require a linear search.
+ */
+public class ProtectedRegionRegistry {
+    private final Set<ProtectedRegion> regions = new HashSet<>();
+    private final PriorityQueue<ProtectedRegion> regionsByExpiry =
+            new PriorityQueue<>(Comparator.comparingLong(region -> region.expiryTime));
+    private final Map<Vector3i, Set<ProtectedRegion>> regionsByChunk = new HashMap<>();
+
+    public void add(ProtectedRegion protectedRegion) {
+        if (!regions.add(protectedRegion)) {
+            return;
+        }
+        regionsByExpiry.add(protectedRegion);
+        for (Vector3i chunkPos : getChunkRegion(protectedRegion.region)) {
+            regionsByChunk.computeIfAbsent(new Vector3i(chunkPos), pos -> new HashSet<>()).add(protectedRegion);
+        }
+    }
+
+    public void addAll(Collection<ProtectedRegion> protectedRegions) {
+        for (ProtectedRegion protectedRegion : protectedRegions) {
+            add(protectedRegion);
+        }
+    }
+
+    public void remove(ProtectedRegion protectedRegion) {
+        if (!regions.remove(protectedRegion)) {
+            return;
+        }
+        for (Vector3i chunkPos : getChunkRegion(protectedRegion.region)) {
+            Set<ProtectedRegion> regionsOfChunk = regionsByChunk.get(chunkPos);
+            if (regionsOfChunk != null) {
+                regionsOfChunk.remove(protectedRegion);
+                if (regionsOfChunk.isEmpty()) {
+                    regionsByChunk.remove(chunkPos);
+                }
+            }
+        }
+        if (regions.isEmpty()) {
+            regionsByExpiry.clear();
+        }
+    }
+
+    public void removeAll(Collection<ProtectedRegion> protectedRegions) {
+        for (ProtectedRegion protectedRegion : protectedRegions) {
+            remove(protectedRegion);
+        }
+    }
+
+    public void clear() {
+        regions.clear();
+        regionsByExpiry.clear();
+        regionsByChunk.clear();
+    }
+
+    /**
+     * Removes the regions whose protection has ended.
+     *
+     * @return the removed regions.
+     */
+    public List<ProtectedRegion> removeExpired(long gameTimeInMs) {
+        List<ProtectedRegion> removed = new ArrayList<>();
+        while (!regionsByExpiry.isEmpty() && regionsByExpiry.peek().expiryTime <= gameTimeInMs) {
+            ProtectedRegion protectedRegion = regionsByExpiry.poll();
+            if (regions.contains(protectedRegion)) {
+                remove(protectedRegion);
+                removed.add(protectedRegion);
+            }
+        }
+        return removed;
+    }
+
+    public boolean isProtected(Vector3i position) {
+        Set<ProtectedRegion> regionsOfChunk = regionsByChunk.get(ChunkMath.calcChunkPos(position));
+        if (regionsOfChunk != null) {
+            for (ProtectedRegion protectedRegion : regionsOfChunk) {
+                if (protectedRegion.region.encompasses(position)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean intersectsProtectedRegion(Region3i region) {
+        if (regions.isEmpty()) {
+            return false;
+        }
+        Region3i chunkRegion = getChunkRegion(region);
+        if (chunkRegion.sizeX() * chunkRegion.sizeY() * chunkRegion.sizeZ() > regions.size()) {
+            for (ProtectedRegion protectedRegion : regions) {
+                if (ProtectedRegionUtility.intersects(protectedRegion.region, region)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Vector3i chunkPos : chunkRegion) {
+            Set<ProtectedRegion> regionsOfChunk = regionsByChunk.get(chunkPos);
+            if (regionsOfChunk == null) {
+                continue;
+            }
+            for (ProtectedRegion protectedRegion : regionsOfChunk) {
+                if (ProtectedRegionUtility.intersects(protectedRegion.region, region)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return regions.size();
+    }
+
+    public boolean isEmpty() {
+        return regions.isEmpty();
+    }
+
+    private static Region3i getChunkRegion(Region3i blockRegion) {
+        return Region3i.createFromMinMax(ChunkMath.calcChunkPos(blockRegion.min()),
+                ChunkMath.calcChunkPos(blockRegion.max()));
+    }
+}
@@ -23,6 +23,7 @@ import org.terasology.math.geom.Vector3i;
 import org.terasology.structureTemplates.components.ProtectedRegionsComponent;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class ProtectedRegionUtility {
@@ -48,4 +49,37 @@ public class ProtectedRegionUtility {
         }
         return false;
     }
+
+    /**
+     * Checks if the specified region intersects a protected region of the given regionEntity. The costs do not
+     * depend on the size of the region.
+     */
+    public static boolean isRegionInProtectedRegion(Region3i region, EntityRef regionEntity) {
+        return isAnyRegionInProtectedRegion(Collections.singleton(region), regionEntity);
+    }
+
+    /**
+     * Checks if any of the specified regions intersects a protected region of the given regionEntity.
+     */
+    public static boolean isAnyRegionInProtectedRegion(Collection<Region3i> regions, EntityRef regionEntity) {
+        ProtectedRegionsComponent protectedRegionsComponent = regionEntity.getComponent(ProtectedRegionsComponent.class);
+        List<Region3i> protectedRegions = protectedRegionsComponent.regions;
+        if (protectedRegions != null) {
+            for (Region3i protectedRegion : protectedRegions) {
+                for (Region3i region : regions) {
+                    if (intersects(protectedRegion, region)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean intersects(Region3i a, Region3i b) {
+        return !a.isEmpty() && !b.isEmpty()
+                && a.minX() <= b.maxX() && b.minX() <= a.maxX()
+                && a.minY() <= b.maxY() && b.minY() <= a.maxY()
+                && a.minZ() <= b.maxZ() && b.minZ() <= a.maxZ();
+    }
 }
@@ -20,9 +20,11 @@ import org.terasology.math.geom.Vector3i;
 import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -49,6 +51,98 @@ public class RegionMergeUtil {
         return newTemplateRegions;
     }
 
+    /**
+     * Like {@link #mergePositionsIntoRegions(Set)} but for positions packed via {@link PackedBlockPosition}. Sorting
+     * the packed values puts neighbors along the z axis next to each other. Those get combined into one region right
+     * away, before the regions get merged.
+     */
+    public static List<Region3i> mergePositionsIntoRegions(LongHashSet packedPositions) {
+        long[] positions = packedPositions.toArray();
+        Arrays.sort(positions);
+        List<Region3i> regions = new ArrayList<>();
+        int i = 0;
+        while (i < positions.length) {
+            int x = PackedBlockPosition.x(positions[i]);
+            int y = PackedBlockPosition.y(positions[i]);
+            int minZ = PackedBlockPosition.z(positions[i]);
+            int maxZ = minZ;
+            i++;
+            while (i < positions.length && positions[i] == PackedBlockPosition.pack(x, y, maxZ + 1)) {
+                maxZ++;
+                i++;
+            }
+            regions.add(Region3i.createFromMinMax(new Vector3i(x, y, minZ), new Vector3i(x, y, maxZ)));
+        }
+        mergeRegionsByZ(regions);
+        mergeRegionsByX(regions);
+        mergeRegionsByY(regions);
+        return regions;
+    }
+
+    /**
+     * Merges touching regions that have the same size in the other dimensions. The regions must not overlap.
+     */
+    public static void mergeRegions(List<Region3i> regions) {
+        mergeSingleBlockRegions(regions);
+    }
+
+    /**
+     * @return up to 6 non overlapping regions that cover the blocks of the region that are not in the subtrahend.
+     */
+    public static List<Region3i> subtractRegion(Region3i region, Region3i subtrahend) {
+        List<Region3i> result = new ArrayList<>();
+        Region3i intersection = region.intersect(subtrahend);
+        if (intersection.isEmpty()) {
+            result.add(region);
+            return result;
+        }
+        int minX = region.minX();
+        int maxX = region.maxX();
+        int minY = region.minY();
+        int maxY = region.maxY();
+        // slabs along x:
+        if (region.minX() < intersection.minX()) {
+            result.add(createRegion(minX, minY, region.minZ(), intersection.minX() - 1, maxY, region.maxZ()));
+        }
+        if (region.maxX() > intersection.maxX()) {
+            result.add(createRegion(intersection.maxX() + 1, minY, region.minZ(), maxX, maxY, region.maxZ()));
+        }
+        minX = intersection.minX();
+        maxX = intersection.maxX();
+        // slabs along y within the x range of the intersection:
+        if (region.minY() < intersection.minY()) {
+            result.add(createRegion(minX, minY, region.minZ(), maxX, intersection.minY() - 1, region.maxZ()));
+        }
+        if (region.maxY() > intersection.maxY()) {
+            result.add(createRegion(minX, intersection.maxY() + 1, region.minZ(), maxX, maxY, region.maxZ()));
+        }
+        minY = intersection.minY();
+        maxY = intersection.maxY();
+        // slabs along z within the x and y range of the intersection:
+        if (region.minZ() < intersection.minZ()) {
+            result.add(createRegion(minX, minY, region.minZ(), maxX, maxY, intersection.minZ() - 1));
+        }
+        if (region.maxZ() > intersection.maxZ()) {
+            result.add(createRegion(minX, minY, intersection.maxZ() + 1, maxX, maxY, region.maxZ()));
+        }
+        return result;
+    }
+
+    /**
+     * @return non overlapping regions that cover the blocks of the regions that are not in the subtrahend.
+     */
+    public static List<Region3i> subtractRegion(List<Region3i> regions, Region3i subtrahend) {
+        List<Region3i> result = new ArrayList<>();
+        for (Region3i region : regions) {
+            result.addAll(subtractRegion(region, subtrahend));
+        }
+        return result;
+    }
+
+    private static Region3i createRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return Region3i.createFromMinMax(new Vector3i(minX, minY, minZ), new Vector3i(maxX, maxY, maxZ));
+    }
+
     private static void mergeSingleBlockRegions(List<Region3i> regions) {
         mergeRegionsByX(regions);
         mergeRegionsByY(regions);
@@ -79,7 +173,8 @@ public class RegionMergeUtil {
                     && secondaryDimension.getMax(r.region) == secondaryDimension.getMax(previous.region)
                     && thirdDimension.getMin(r.region) == thirdDimension.getMin(previous.region)
                     && thirdDimension.getMax(r.region) == thirdDimension.getMax(previous.region)
-                    && r.blockType.equals(previous.blockType);
+                    && Objects.equals(r.blockType, previous.blockType)
+                    && Objects.equals(r.blockIndex, previous.blockIndex);
             if (canMerge) {
                 previous.region = dimensionToMerge.regionCopyWithMaxSetTo(previous.region, dimensionToMerge.getMax(r.region));
             } else {
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.entitySystem.entity.EntityBuilder;
+import org.terasology.entitySystem.entity.EntityManager;
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.rendering.logic.RegionOutlineComponent;
+import org.terasology.rendering.nui.Color;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Manages the entities with a {@link RegionOutlineComponent} that show a set of regions. When the regions change,
+ * the existing outline entities get reused and only the ones that show something different get updated.
+ *
+ * When there are more than {@link #MAX_OUTLINES} regions, only the bounding box of the regions of each color
+ * gets shown.
+ */
+public class RegionOutlinePool {
+    public static final int MAX_OUTLINES = 64;
+
+    private final EntityManager entityManager;
+    private final List<EntityRef> outlineEntities = new ArrayList<>();
+
+    public RegionOutlinePool(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public void showRegions(Collection<Region3i> regions, Color color) {
+        List<ColoredRegion> coloredRegions = new ArrayList<>(regions.size());
+        for (Region3i region : regions) {
+            coloredRegions.add(new ColoredRegion(region, color));
+        }
+        showColoredRegions(coloredRegions);
+    }
+
+    public void showColoredRegions(List<ColoredRegion> regions) {
+        List<ColoredRegion> regionsToShow = regions.size() > MAX_OUTLINES ? boundingBoxPerColor(regions) : regions;
+        int index = 0;
+        for (ColoredRegion coloredRegion : regionsToShow) {
+            if (index < outlineEntities.size() && outlineEntities.get(index).exists()) {
+                updateOutlineEntity(outlineEntities.get(index), coloredRegion);
+            } else if (index < outlineEntities.size()) {
+                outlineEntities.set(index, createOutlineEntity(coloredRegion));
+            } else {
+                outlineEntities.add(createOutlineEntity(coloredRegion));
+            }
+            index++;
+        }
+        while (outlineEntities.size() > index) {
+            EntityRef entity = outlineEntities.remove(outlineEntities.size() - 1);
+            if (entity.exists()) {
+                entity.destroy();
+            }
+        }
+    }
+
+    public void clear() {
+        showColoredRegions(new ArrayList<>());
+    }
+
+    private static List<ColoredRegion> boundingBoxPerColor(List<ColoredRegion> regions) {
+        Map<Color, Region3i> boundingBoxes = new LinkedHashMap<>();
+        for (ColoredRegion coloredRegion : regions) {
+            boundingBoxes.merge(coloredRegion.getColor(), coloredRegion.getRegion(),
+                    (a, b) -> Region3i.createFromMinMax(
+                            new Vector3i(Math.min(a.minX(), b.minX()), Math.min(a.minY(), b.minY()),
+                                    Math.min(a.minZ(), b.minZ())),
+                            new Vector3i(Math.max(a.maxX(), b.maxX()), Math.max(a.maxY(), b.maxY()),
+                                    Math.max(a.maxZ(), b.maxZ()))));
+        }
+        List<ColoredRegion> result = new ArrayList<>();
+        for (Map.Entry<Color, Region3i> entry : boundingBoxes.entrySet()) {
+            result.add(new ColoredRegion(entry.getValue(), entry.getKey()));
+        }
+        return result;
+    }
+
+    private void updateOutlineEntity(EntityRef entity, ColoredRegion coloredRegion) {
+        RegionOutlineComponent component = entity.getComponent(RegionOutlineComponent.class);
+        Region3i region = coloredRegion.getRegion();
+        if (component == null) {
+            entity.addComponent(createOutlineComponent(coloredRegion));
+            return;
+        }
+        if (region.min().equals(component.corner1) && region.max().equals(component.corner2)
+                && Objects.equals(coloredRegion.getColor(), component.color)) {
+            return;
+        }
+        component.corner1 = new Vector3i(region.min());
+        component.corner2 = new Vector3i(region.max());
+        component.color = coloredRegion.getColor();
+        entity.saveComponent(component);
+    }
+
+    private EntityRef createOutlineEntity(ColoredRegion coloredRegion) {
+        EntityBuilder entityBuilder = entityManager.newBuilder();
+        entityBuilder.setPersistent(false);
+        entityBuilder.addComponent(createOutlineComponent(coloredRegion));
+        return entityBuilder.build();
+    }
+
+    private static RegionOutlineComponent createOutlineComponent(ColoredRegion coloredRegion) {
+        RegionOutlineComponent regionOutlineComponent = new RegionOutlineComponent();
+        regionOutlineComponent.corner1 = new Vector3i(coloredRegion.getRegion().min());
+        regionOutlineComponent.corner2 = new Vector3i(coloredRegion.getRegion().max());
+        regionOutlineComponent.color = coloredRegion.getColor();
+        return regionOutlineComponent;
+    }
+
+    public static final class ColoredRegion {
+        private final Region3i region;
+        private final Color color;
+
+        public ColoredRegion(Region3i region, Color color) {
+            this.region = region;
+            this.color = color;
+        }
+
+        public Region3i getRegion() {
+            return region;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.components.SpawnBlockRegionsComponent;
+import org.terasology.structureTemplates.events.GetStructureTemplateBlocksEvent;
+import org.terasology.structureTemplates.util.transform.HorizontalBlockRegionRotation;
+import org.terasology.world.block.Block;
+
+import java.util.List;
+
+/**
+ * The regions and blocks of a {@link SpawnBlockRegionsComponent} after a horizontal rotation. A spawn with that
+ * rotation only needs to move the regions by its offset.
+ */
+public class RotatedTemplateVariant {
+    private final Region3i[] regions;
+    private final Block[] blocks;
+
+    private RotatedTemplateVariant(Region3i[] regions, Block[] blocks) {
+        this.regions = regions;
+        this.blocks = blocks;
+    }
+
+    public static RotatedTemplateVariant create(SpawnBlockRegionsComponent component,
+                                                int counterClockWiseHorizontal90DegreeRotations) {
+        HorizontalBlockRegionRotation rotation = new HorizontalBlockRegionRotation(
+                counterClockWiseHorizontal90DegreeRotations);
+        List<SpawnBlockRegionsComponent.RegionToFill> regionsToFill = component.regionsToFill;
+        Region3i[] regions = new Region3i[regionsToFill.size()];
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = rotation.transformRegion(regionsToFill.get(i).region);
+        }
+        return new RotatedTemplateVariant(regions, BlockRegionUtilities.transformBlocksOfRegions(component, rotation));
+    }
+
+    /**
+     * Adds the blocks of the variant, moved by the given offset, to the event.
+     */
+    public void addBlocks(GetStructureTemplateBlocksEvent event, Vector3i offset) {
+        for (int i = 0; i < regions.length; i++) {
+            event.fillRegion(regions[i].move(offset), blocks[i]);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Remembers the blocks that got overwritten by the last structure spawns, so that the spawns can be undone.
+ *
+ * The blocks of an entry get stored chunk by chunk. For each chunk, the box around the overwritten positions gets
+ * stored as run length encoded indices into a block palette of the entry. Index 0 marks positions within the box
+ * that were not overwritten. The encoded data is kept outside of the java heap.
+ *
+ * Only the latest {@link #maxEntries} entries are kept.
+ */
+public class SpawnUndoJournal {
+    public static final int DEFAULT_MAX_ENTRIES = 16;
+    private static final short NOT_OVERWRITTEN = 0;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final int maxEntries;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+
+    public SpawnUndoJournal() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public SpawnUndoJournal(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return an entry to record the blocks with. It must be added via {@link #add(Entry)} when complete.
+     */
+    public Entry startEntry() {
+        return new Entry();
+    }
+
+    public void add(Entry entry) {
+        entries.push(entry);
+        if (entries.size() > maxEntries) {
+            entries.removeLast();
+        }
+    }
+
+    /**
+     * @return the latest entry or null if there is none. The entry gets removed from the journal.
+     */
+    public Entry removeLatest() {
+        return entries.poll();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * The overwritten blocks of one spawn.
+     */
+    public static final class Entry {
+        private final List<Block> palette = new ArrayList<>();
+        private final Map<Block, Short> paletteIndices = new HashMap<>();
+        private ByteBuffer data = ByteBuffer.allocateDirect(INITIAL_BUFFER_SIZE);
+        private int chunkCount;
+
+        private Entry() {
+            palette.add(null);
+        }
+
+        /**
+         * Stores the current blocks at the given positions, which must all be in the same chunk. The positions
+         * get read right away, so this must be called before the blocks get overwritten.
+         */
+        public void recordChunk(Iterable<Vector3i> positions, ChunkBlockSummary.BlockLookup blockLookup) {
+            Vector3i min = null;
+            Vector3i max = null;
+            for (Vector3i position : positions) {
+                if (min == null) {
+                    min = new Vector3i(position);
+                    max = new Vector3i(position);
+                } else {
+                    min.min(position);
+                    max.max(position);
+                }
+            }
+            if (min == null) {
+                return;
+            }
+            int sizeY = max.y - min.y + 1;
+            int sizeZ = max.z - min.z + 1;
+            boolean[] overwritten = new boolean[(max.x - min.x + 1) * sizeY * sizeZ];
+            for (Vector3i position : positions) {
+                overwritten[((position.x - min.x) * sizeY + position.y - min.y) * sizeZ + position.z - min.z] = true;
+            }
+
+            ensureRemaining(7 * Integer.BYTES);
+            data.putInt(min.x).putInt(min.y).putInt(min.z).putInt(max.x).putInt(max.y).putInt(max.z);
+            int runCountPosition = data.position();
+            data.putInt(0);
+            int runCount = 0;
+            short runIndex = NOT_OVERWRITTEN;
+            int runLength = 0;
+            int i = 0;
+            for (int x = min.x; x <= max.x; x++) {
+                for (int y = min.y; y <= max.y; y++) {
+                    for (int z = min.z; z <= max.z; z++) {
+                        short index = overwritten[i++] ? paletteIndexOf(blockLookup.getBlock(x, y, z)) : NOT_OVERWRITTEN;
+                        if (index != runIndex && runLength > 0) {
+                            writeRun(runIndex, runLength);
+                            runCount++;
+                            runLength = 0;
+                        }
+                        runIndex = index;
+                        runLength++;
+                    }
+                }
+            }
+            writeRun(runIndex, runLength);
+            runCount++;
+            data.putInt(runCountPosition, runCount);
+            chunkCount++;
+        }
+
+        /**
+         * Passes the recorded blocks chunk by chunk to the given consumer.
+         */
+        public void restore(Consumer<Map<Vector3i, Block>> chunkConsumer) {
+            ByteBuffer reader = data.duplicate();
+            reader.flip();
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                Vector3i min = new Vector3i(reader.getInt(), reader.getInt(), reader.getInt());
+                Vector3i max = new Vector3i(reader.getInt(), reader.getInt(), reader.getInt());
+                int runCount = reader.getInt();
+                Map<Vector3i, Block> blocks = new LinkedHashMap<>();
+                int x = min.x;
+                int y = min.y;
+                int z = min.z;
+                for (int run = 0; run < runCount; run++) {
+                    short index = reader.getShort();
+                    int runLength = reader.getInt();
+                    for (int j = 0; j < runLength; j++) {
+                        if (index != NOT_OVERWRITTEN) {
+                            blocks.put(new Vector3i(x, y, z), palette.get(index));
+                        }
+                        z++;
+                        if (z > max.z) {
+                            z = min.z;
+                            y++;
+                            if (y > max.y) {
+                                y = min.y;
+                                x++;
+                            }
+                        }
+                    }
+                }
+                chunkConsumer.accept(blocks);
+            }
+        }
+
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        /**
+         * @return the number of bytes used for the encoded blocks.
+         */
+        public int getDataSize() {
+            return data.position();
+        }
+
+        private short paletteIndexOf(Block block) {
+            Short index = paletteIndices.get(block);
+            if (index == null) {
+                if (palette.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many different blocks for the undo journal");
+                }
+                index = (short) palette.size();
+                palette.add(block);
+                paletteIndices.put(block, index);
+            }
+            return index;
+        }
+
+        private void writeRun(short index, int runLength) {
+            ensureRemaining(Short.BYTES + Integer.BYTES);
+            data.putShort(index).putInt(runLength);
+        }
+
+        private void ensureRemaining(int bytes) {
+            if (data.remaining() < bytes) {
+                ByteBuffer newData = ByteBuffer.allocateDirect(Math.max(data.capacity() * 2, data.position() + bytes));
+                data.flip();
+                newData.put(data);
+                data = newData;
+            }
+        }
+    }
+}
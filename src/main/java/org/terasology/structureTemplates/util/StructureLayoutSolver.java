@@ -0,0 +1,378 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.entitySystem.prefab.Prefab;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.util.transform.BlockRegionMovement;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransformationList;
+import org.terasology.structureTemplates.util.transform.HorizontalBlockRegionRotation;
+import org.terasology.world.block.Block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Determines the structures to spawn for a tree of scheduled structure placements, before any of them gets spawned.
+ *
+ * The placeholders get filled depth first. A template can only be placed when its spawn conditions are met and when
+ * its regions don't intersect the regions of already planned structures, except for those of the structure it is
+ * connected to. The spawn conditions get checked against the world with the blocks of the already planned
+ * structures on top. The world does not change while the solver runs, so together they are a snapshot of the
+ * world as it will be once the layout got spawned.
+ *
+ * A template whose placeholders can't all be filled gets replaced by the next candidate of its type. If no
+ * candidate can be completed, the first one that fits gets used and the placeholders that can't be filled get
+ * dropped, like it is done when the placeholders get filled one at a time.
+ *
+ * Placeholders deeper than the maximum depth are left unsolved, so that they can be spawned the usual way.
+ * After the maximum number of attempts, templates get accepted without requiring complete subtrees. Once the
+ * placed structures reach the maximum number of structures or blocks, the remaining placeholders get cut off.
+ *
+ * @param <T> the type of the templates, e.g. their entities.
+ */
+public class StructureLayoutSolver<T> {
+    public static final int DEFAULT_MAX_DEPTH = 8;
+    public static final int DEFAULT_MAX_ATTEMPTS = 256;
+
+    private final Templates<T> templates;
+    private final int maxDepth;
+    private final int maxAttempts;
+    private final int maxStructures;
+    private final long maxBlocks;
+
+    private final Map<Vector3i, List<PlannedRegion>> plannedRegionsByChunk = new HashMap<>();
+    private final List<PlannedRegion> plannedRegions = new ArrayList<>();
+    private final PlannedBlocks plannedBlocks = new PlannedBlocks();
+    private final List<Placement<T>> placements = new ArrayList<>();
+    private final List<Placeholder> unsolvedPlaceholders = new ArrayList<>();
+    private long placedBlockCount;
+    private int cutOffPlaceholderCount;
+    private int attempts;
+    private int nextStructureId;
+
+    public StructureLayoutSolver(Templates<T> templates, int maxDepth, int maxAttempts) {
+        this(templates, maxDepth, maxAttempts, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param maxStructures the maximum number of structures to place, not counting the root.
+     * @param maxBlocks     the maximum number of blocks of the placed structures. A structure gets placed as long as
+     *                      the limit has not been reached yet, so the last one can exceed it.
+     */
+    public StructureLayoutSolver(Templates<T> templates, int maxDepth, int maxAttempts, int maxStructures,
+                                 long maxBlocks) {
+        this.templates = templates;
+        this.maxDepth = maxDepth;
+        this.maxAttempts = maxAttempts;
+        this.maxStructures = maxStructures;
+        this.maxBlocks = maxBlocks;
+    }
+
+    /**
+     * @param rootTemplate the already spawned structure with the placeholders to fill.
+     * @return the placements of the solved layout, in the order they should be spawned. Placeholders that got
+     * left unsolved can be obtained afterwards via {@link #getUnsolvedPlaceholders()}.
+     */
+    public List<Placement<T>> solve(T rootTemplate, BlockRegionTransform rootTransformation) {
+        int rootId = planRegions(rootTemplate, rootTransformation);
+        for (Placeholder placeholder : templates.getPlaceholders(rootTemplate, rootTransformation, 0)) {
+            fillPlaceholder(placeholder, rootId, true);
+        }
+        return placements;
+    }
+
+    public List<Placeholder> getUnsolvedPlaceholders() {
+        return unsolvedPlaceholders;
+    }
+
+    /**
+     * @return the number of placeholders that did not get filled, as the maximum number of structures or blocks got
+     * reached.
+     */
+    public int getCutOffPlaceholderCount() {
+        return cutOffPlaceholderCount;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return false if a complete subtree was required but could not be found, so that the caller should try
+     * another candidate.
+     */
+    private boolean fillPlaceholder(Placeholder placeholder, int parentId, boolean requireComplete) {
+        if (placeholder.depth >= maxDepth) {
+            unsolvedPlaceholders.add(placeholder);
+            return true;
+        }
+        if (placements.size() >= maxStructures || placedBlockCount >= maxBlocks) {
+            cutOffPlaceholderCount++;
+            return true;
+        }
+        Iterator<T> candidates = templates.iterateCandidates(placeholder);
+        BlockRegionTransform transformation = createTransformation(placeholder);
+        T firstFittingTemplate = null;
+        while (candidates.hasNext()) {
+            T template = candidates.next();
+            attempts++;
+            if (!fits(template, transformation, parentId)) {
+                continue;
+            }
+            if (!requireComplete || attempts > maxAttempts) {
+                place(template, transformation, placeholder.depth, false);
+                return true;
+            }
+            Checkpoint checkpoint = new Checkpoint();
+            if (place(template, transformation, placeholder.depth, true)) {
+                return true;
+            }
+            checkpoint.rollback();
+            if (firstFittingTemplate == null) {
+                firstFittingTemplate = template;
+            }
+        }
+        if (firstFittingTemplate != null) {
+            place(firstFittingTemplate, transformation, placeholder.depth, false);
+        }
+        return false;
+    }
+
+    /**
+     * @return false if a complete subtree was required but could not be found.
+     */
+    private boolean place(T template, BlockRegionTransform transformation, int depth, boolean requireComplete) {
+        int structureId = planRegions(template, transformation);
+        placements.add(new Placement<>(template, transformation, depth));
+        for (Region3i region : templates.getRegions(template)) {
+            placedBlockCount += (long) region.sizeX() * region.sizeY() * region.sizeZ();
+        }
+        for (Placeholder placeholder : templates.getPlaceholders(template, transformation, depth + 1)) {
+            if (!fillPlaceholder(placeholder, structureId, requireComplete) && requireComplete) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean fits(T template, BlockRegionTransform transformation, int parentId) {
+        for (Region3i region : templates.getRegions(template)) {
+            if (intersectsPlannedRegion(transformation.transformRegion(region), parentId)) {
+                return false;
+            }
+        }
+        return templates.meetsSpawnConditions(template, transformation, plannedBlocks);
+    }
+
+    private boolean intersectsPlannedRegion(Region3i region, int ignoredStructureId) {
+        for (Vector3i chunkPos : getChunkRegion(region)) {
+            List<PlannedRegion> regionsOfChunk = plannedRegionsByChunk.get(chunkPos);
+            if (regionsOfChunk == null) {
+                continue;
+            }
+            for (PlannedRegion plannedRegion : regionsOfChunk) {
+                if (plannedRegion.structureId != ignoredStructureId
+                        && ProtectedRegionUtility.intersects(plannedRegion.region, region)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the id of the structure the regions got planned for.
+     */
+    private int planRegions(T template, BlockRegionTransform transformation) {
+        int structureId = nextStructureId++;
+        for (Region3i relativeRegion : templates.getRegions(template)) {
+            PlannedRegion plannedRegion = new PlannedRegion(transformation.transformRegion(relativeRegion),
+                    structureId);
+            plannedRegions.add(plannedRegion);
+            for (Vector3i chunkPos : getChunkRegion(plannedRegion.region)) {
+                plannedRegionsByChunk.computeIfAbsent(new Vector3i(chunkPos), pos -> new ArrayList<>())
+                        .add(plannedRegion);
+            }
+        }
+        plannedBlocks.addAll(templates.getBlocks(template, transformation));
+        return structureId;
+    }
+
+    /**
+     * The front of a template gets turned towards the front of the placeholder and its origin gets moved to the
+     * position of the placeholder.
+     */
+    private static BlockRegionTransform createTransformation(Placeholder placeholder) {
+        BlockRegionTransformationList transformList = new BlockRegionTransformationList();
+        transformList.addTransformation(
+                HorizontalBlockRegionRotation.createRotationFromSideToSide(Side.FRONT, placeholder.front));
+        transformList.addTransformation(new BlockRegionMovement(placeholder.position));
+        return transformList;
+    }
+
+    private static Region3i getChunkRegion(Region3i blockRegion) {
+        return Region3i.createFromMinMax(ChunkMath.calcChunkPos(blockRegion.min()),
+                ChunkMath.calcChunkPos(blockRegion.max()));
+    }
+
+    /**
+     * Provides the solver with what it needs to know about the templates.
+     */
+    public interface Templates<T> {
+        /**
+         * @return the templates that can fill the placeholder, in the order they should be tried.
+         */
+        Iterator<T> iterateCandidates(Placeholder placeholder);
+
+        /**
+         * @return the regions of the template, relative to its origin.
+         */
+        List<Region3i> getRegions(T template);
+
+        /**
+         * @return the placeholders of the template, with their absolute positions and directions.
+         */
+        List<Placeholder> getPlaceholders(T template, BlockRegionTransform transformation, int depth);
+
+        Map<Vector3i, Block> getBlocks(T template, BlockRegionTransform transformation);
+
+        /**
+         * @param plannedBlocks the blocks of the already planned structures, which need to be checked instead of
+         *                      the world where there are some.
+         */
+        boolean meetsSpawnConditions(T template, BlockRegionTransform transformation, PlannedBlocks plannedBlocks);
+    }
+
+    public static final class Placement<T> {
+        private final T template;
+        private final BlockRegionTransform transformation;
+        private final int depth;
+
+        private Placement(T template, BlockRegionTransform transformation, int depth) {
+            this.template = template;
+            this.transformation = transformation;
+            this.depth = depth;
+        }
+
+        public T getTemplate() {
+            return template;
+        }
+
+        public BlockRegionTransform getTransformation() {
+            return transformation;
+        }
+
+        /**
+         * @return the depth of the placeholder that the template fills, 0 for the placeholders of the root.
+         */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    public static final class Placeholder {
+        private final Prefab structureTemplateType;
+        private final Vector3i position;
+        private final Side front;
+        private final int depth;
+        private final float activationDistance;
+
+        /**
+         * @param activationDistance the activation distance of the structure that has the placeholder, which gets
+         *                           used when the placeholder gets left unsolved.
+         */
+        public Placeholder(Prefab structureTemplateType, Vector3i position, Side front, int depth,
+                           float activationDistance) {
+            this.structureTemplateType = structureTemplateType;
+            this.position = position;
+            this.front = front;
+            this.depth = depth;
+            this.activationDistance = activationDistance;
+        }
+
+        public Prefab getStructureTemplateType() {
+            return structureTemplateType;
+        }
+
+        public Vector3i getPosition() {
+            return position;
+        }
+
+        public Side getFront() {
+            return front;
+        }
+
+        /**
+         * @return the number of structures between the root and the placeholder, 0 for the placeholders of the root.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public float getActivationDistance() {
+            return activationDistance;
+        }
+    }
+
+    /**
+     * Remembers the state of the solver, so that everything planned afterwards can be undone.
+     */
+    private final class Checkpoint {
+        private final int plannedRegionCount = plannedRegions.size();
+        private final int plannedBlockChangeCount = plannedBlocks.getChangeCount();
+        private final int placementCount = placements.size();
+        private final int unsolvedPlaceholderCount = unsolvedPlaceholders.size();
+        private final long blockCount = placedBlockCount;
+        private final int cutOffCount = cutOffPlaceholderCount;
+
+        private void rollback() {
+            while (plannedRegions.size() > plannedRegionCount) {
+                PlannedRegion plannedRegion = plannedRegions.remove(plannedRegions.size() - 1);
+                for (Vector3i chunkPos : getChunkRegion(plannedRegion.region)) {
+                    List<PlannedRegion> regionsOfChunk = plannedRegionsByChunk.get(chunkPos);
+                    // the region is the last one added to the chunk, as regions get removed in reverse order:
+                    regionsOfChunk.remove(regionsOfChunk.size() - 1);
+                    if (regionsOfChunk.isEmpty()) {
+                        plannedRegionsByChunk.remove(chunkPos);
+                    }
+                }
+            }
+            plannedBlocks.rollback(plannedBlockChangeCount);
+            placements.subList(placementCount, placements.size()).clear();
+            unsolvedPlaceholders.subList(unsolvedPlaceholderCount, unsolvedPlaceholders.size()).clear();
+            placedBlockCount = blockCount;
+            cutOffPlaceholderCount = cutOffCount;
+        }
+    }
+
+    private static final class PlannedRegion {
+        private final Region3i region;
+        private final int structureId;
+
+        private PlannedRegion(Region3i region, int structureId) {
+            this.region = region;
+            this.structureId = structureId;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.entitySystem.entity.EntityRef;
+import org.terasology.structureTemplates.components.StructureTemplateComponent;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
+
+/**
+ * Describes where a structure template should be spawned: The template entity (an entity with a
+ * {@link StructureTemplateComponent}) and the transformation that gets applied to it.
+ */
+public class StructurePlacement {
+    private EntityRef template;
+    private BlockRegionTransform transformation;
+
+    public StructurePlacement(EntityRef template, BlockRegionTransform transformation) {
+        this.template = template;
+        this.transformation = transformation;
+    }
+
+    public EntityRef getTemplate() {
+        return template;
+    }
+
+    public BlockRegionTransform getTransformation() {
+        return transformation;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.terasology.math.Direction;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent.ReplacementType;
+
+/**
+ * Determines the positions of a wall, starting at a wall block the player looks at. A position belongs to the wall
+ * if it is solid and the block in front of it (towards the player) is penetrable. The wall gets extended
+ * to the left, right, top and bottom till no more wall blocks are found or the maximum number of positions is
+ * reached.
+ *
+ * Positions get stored as {@link PackedBlockPosition} values, so that no objects get created per visited block.
+ */
+public final class WallFloodFill {
+    public static final int MAX_BLOCKS_PER_WALL = 100;
+
+    /**
+     * Provides the penetrability of the blocks of the world.
+     */
+    @FunctionalInterface
+    public interface PenetrabilityLookup {
+        boolean isPenetrable(int x, int y, int z);
+    }
+
+    private WallFloodFill() {
+    }
+
+    /**
+     * The result of a flood fill.
+     */
+    public static final class Result {
+        private final LongHashSet positions;
+        private final Region3i readRegion;
+
+        private Result(LongHashSet positions, Region3i readRegion) {
+            this.positions = positions;
+            this.readRegion = readRegion;
+        }
+
+        /**
+         * @return the positions to replace as {@link PackedBlockPosition} values.
+         */
+        public LongHashSet getPositions() {
+            return positions;
+        }
+
+        /**
+         * @return a region that contains all blocks the result depends on.
+         */
+        public Region3i getReadRegion() {
+            return readRegion;
+        }
+    }
+
+    /**
+     * @param start the position of the wall block the player looks at.
+     * @param directionPlayerLooksAt the horizontal or vertical direction the player looks in.
+     */
+    public static Result fill(Vector3i start, Side directionPlayerLooksAt, ReplacementType replacementType,
+                              int maxPositions, PenetrabilityLookup lookup) {
+        Vector3i infront = getAbsoluteOffset(directionPlayerLooksAt, Direction.BACKWARD);
+        Vector3i left = getAbsoluteOffset(directionPlayerLooksAt, Direction.LEFT);
+        Vector3i right = getAbsoluteOffset(directionPlayerLooksAt, Direction.RIGHT);
+        Vector3i up = getAbsoluteOffset(directionPlayerLooksAt, Direction.UP);
+        Vector3i down = getAbsoluteOffset(directionPlayerLooksAt, Direction.DOWN);
+        Vector3i[] neighbors = {left, right, up, down};
+
+        LongHashSet positionsToAdd = new LongHashSet(maxPositions);
+        LongHashSet positionsChecked = new LongHashSet(maxPositions * 4);
+        long[] queue = new long[64];
+        int queueHead = 0;
+        int queueTail = 0;
+        queue[queueTail++] = PackedBlockPosition.pack(start);
+
+        int minX = start.x;
+        int minY = start.y;
+        int minZ = start.z;
+        int maxX = start.x;
+        int maxY = start.y;
+        int maxZ = start.z;
+
+        while (queueHead < queueTail && positionsToAdd.size() < maxPositions) {
+            long wallPos = queue[queueHead++];
+            if (!positionsChecked.add(wallPos)) {
+                continue;
+            }
+            int x = PackedBlockPosition.x(wallPos);
+            int y = PackedBlockPosition.y(wallPos);
+            int z = PackedBlockPosition.z(wallPos);
+            minX = Math.min(minX, Math.min(x, x + infront.x));
+            minY = Math.min(minY, Math.min(y, y + infront.y));
+            minZ = Math.min(minZ, Math.min(z, z + infront.z));
+            maxX = Math.max(maxX, Math.max(x, x + infront.x));
+            maxY = Math.max(maxY, Math.max(y, y + infront.y));
+            maxZ = Math.max(maxZ, Math.max(z, z + infront.z));
+
+            boolean isWall = !lookup.isPenetrable(x, y, z)
+                    && lookup.isPenetrable(x + infront.x, y + infront.y, z + infront.z);
+            if (!isWall) {
+                continue;
+            }
+            addPositionsBasedOnReplacementType(replacementType, positionsToAdd, x, y, z, infront, left, right,
+                    up, down);
+            if (queueTail + neighbors.length > queue.length) {
+                int remaining = queueTail - queueHead;
+                long[] newQueue = remaining + neighbors.length > queue.length / 2 ? new long[queue.length * 2]
+                        : queue;
+                System.arraycopy(queue, queueHead, newQueue, 0, remaining);
+                queue = newQueue;
+                queueHead = 0;
+                queueTail = remaining;
+            }
+            for (Vector3i neighbor : neighbors) {
+                long neighborPos = PackedBlockPosition.pack(x + neighbor.x, y + neighbor.y, z + neighbor.z);
+                if (!positionsChecked.contains(neighborPos)) {
+                    queue[queueTail++] = neighborPos;
+                }
+            }
+        }
+        Region3i readRegion = Region3i.createFromMinMax(new Vector3i(minX, minY, minZ),
+                new Vector3i(maxX, maxY, maxZ));
+        return new Result(positionsToAdd, readRegion);
+    }
+
+    private static void addPositionsBasedOnReplacementType(ReplacementType replacementType, LongHashSet positions,
+                                                           int x, int y, int z, Vector3i infront, Vector3i left,
+                                                           Vector3i right, Vector3i up, Vector3i down) {
+        switch (replacementType) {
+            case AIR_INFRONT_OF_WALL:
+                positions.add(PackedBlockPosition.pack(x + infront.x, y + infront.y, z + infront.z));
+                break;
+            case WALL:
+                positions.add(PackedBlockPosition.pack(x, y, z));
+                break;
+            case WALL_WITH_BORDER:
+                for (int i = -1; i <= 1; i++) {
+                    for (int j = -1; j <= 1; j++) {
+                        Vector3i horizontal = i < 0 ? left : right;
+                        Vector3i vertical = j < 0 ? down : up;
+                        int hx = i == 0 ? 0 : horizontal.x;
+                        int hy = i == 0 ? 0 : horizontal.y;
+                        int hz = i == 0 ? 0 : horizontal.z;
+                        int vx = j == 0 ? 0 : vertical.x;
+                        int vy = j == 0 ? 0 : vertical.y;
+                        int vz = j == 0 ? 0 : vertical.z;
+                        positions.add(PackedBlockPosition.pack(x + hx + vx, y + hy + vy, z + hz + vz));
+                    }
+                }
+                break;
+        }
+    }
+
+    private static Vector3i getAbsoluteOffset(Side side, Direction relativeDirection) {
+        return getAbsoluteDirection(side, relativeDirection).toSide().getVector3i();
+    }
+
+    private static Direction getAbsoluteDirection(Side side, Direction relativeDirection) {
+        switch (side) {
+            case FRONT:
+                return relativeDirection.toSide().yawClockwise(2).toDirection();
+            case LEFT:
+                return relativeDirection.toSide().yawClockwise(3).toDirection();
+            case BACK:
+                return relativeDirection.toSide().yawClockwise(0).toDirection();
+            case RIGHT:
+                return relativeDirection.toSide().yawClockwise(1).toDirection();
+            case TOP:
+                return relativeDirection.toSide().pitchClockwise(3).toDirection();
+            case BOTTOM:
+                return relativeDirection.toSide().pitchClockwise(1).toDirection();
+        }
+        throw new RuntimeException("Unsupported side " + side);
+    }
+}
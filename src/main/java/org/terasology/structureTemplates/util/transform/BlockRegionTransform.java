@@ -34,27 +34,31 @@ public interface BlockRegionTransform {
     Vector3i transformVector3i(Vector3i position);
 
     default Quat4f transformRotation(Quat4f rotation) {
-        Side side = transformSide(Side.FRONT);
-        Quat4f calculatedRotation = new Quat4f(0, 0, 0, 0);
-        switch (side) {
+        Quat4f calculatedRotation = getHorizontalRotation();
+        calculatedRotation.mul(rotation);
+        return calculatedRotation;
+    }
+
+    /**
+     * @return a new quaternion describing the rotation around the y axis that turns the front side into the side
+     * returned by {@link #transformSide(Side)}. When lots of rotations need to be transformed with the same
+     * transformation, it is cheaper to calculate it once and to multiply it with each rotation.
+     */
+    default Quat4f getHorizontalRotation() {
+        switch (transformSide(Side.FRONT)) {
             case FRONT:
-                calculatedRotation = new Quat4f(Vector3f.up(), (float) Math.toRadians(0));
-                break;
+                return new Quat4f(Vector3f.up(), 0);
             case RIGHT:
-                calculatedRotation = new Quat4f(Vector3f.up(), (float) Math.toRadians(90));
-                break;
+                return new Quat4f(Vector3f.up(), (float) (Math.PI / 2));
             case BACK:
-                calculatedRotation = new Quat4f(Vector3f.up(), (float) Math.toRadians(180));
-                break;
+                return new Quat4f(Vector3f.up(), (float) Math.PI);
             case LEFT:
-                calculatedRotation = new Quat4f(Vector3f.up(), (float) Math.toRadians(270));
-                break;
+                return new Quat4f(Vector3f.up(), (float) (Math.PI * 3 / 2));
+            default:
+                return new Quat4f(0, 0, 0, 0);
         }
-        calculatedRotation.mul(rotation);
-        return calculatedRotation;
     }
 
-
     default Region3i transformRegion(Region3i region) {
         return Region3i.createBounded(transformVector3i(region.min()), transformVector3i(region.max()));
     }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util.transform;
+
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+
+/**
+ * A horizontal rotation followed by a movement. Most structure spawns use such a transformation, which can be
+ * described by just the number of rotations and the offset.
+ */
+public class HorizontalRotationAndMovement implements BlockRegionTransform {
+    private static final Vector3i[] PROBE_POSITIONS = {
+            new Vector3i(0, 0, 0),
+            new Vector3i(1, 0, 0),
+            new Vector3i(0, 1, 0),
+            new Vector3i(0, 0, 1),
+            new Vector3i(3, -5, 7)
+    };
+
+    private final int counterClockWiseHorizontal90DegreeRotations;
+    private final Vector3i offset;
+    private final BlockRegionTransformationList transformationList = new BlockRegionTransformationList();
+
+    public HorizontalRotationAndMovement(int counterClockWiseHorizontal90DegreeRotations, Vector3i offset) {
+        this.counterClockWiseHorizontal90DegreeRotations = counterClockWiseHorizontal90DegreeRotations;
+        this.offset = new Vector3i(offset);
+        transformationList.addTransformation(
+                new HorizontalBlockRegionRotation(counterClockWiseHorizontal90DegreeRotations));
+        transformationList.addTransformation(new BlockRegionMovement(this.offset));
+    }
+
+    /**
+     * Describes the given transformation as rotation and movement.
+     *
+     * @return the description or null if the transformation can't be described that way.
+     */
+    public static HorizontalRotationAndMovement tryDecompose(BlockRegionTransform transform) {
+        if (transform instanceof HorizontalRotationAndMovement) {
+            return (HorizontalRotationAndMovement) transform;
+        }
+        Side front = transform.transformSide(Side.FRONT);
+        if (front == Side.TOP || front == Side.BOTTOM) {
+            return null;
+        }
+        int rotations = -1;
+        for (int i = 0; i < 4; i++) {
+            if (new HorizontalBlockRegionRotation(i).transformSide(Side.FRONT) == front) {
+                rotations = i;
+                break;
+            }
+        }
+        if (rotations == -1) {
+            return null;
+        }
+        HorizontalRotationAndMovement candidate = new HorizontalRotationAndMovement(rotations,
+                transform.transformVector3i(new Vector3i(0, 0, 0)));
+        for (Vector3i position : PROBE_POSITIONS) {
+            if (!candidate.transformVector3i(position).equals(transform.transformVector3i(position))) {
+                return null;
+            }
+        }
+        return candidate;
+    }
+
+    public int getCounterClockWiseHorizontal90DegreeRotations() {
+        return counterClockWiseHorizontal90DegreeRotations;
+    }
+
+    public Vector3i getOffset() {
+        return new Vector3i(offset);
+    }
+
+    @Override
+    public Block transformBlock(Block block) {
+        return transformationList.transformBlock(block);
+    }
+
+    @Override
+    public Side transformSide(Side side) {
+        return transformationList.transformSide(side);
+    }
+
+    @Override
+    public Vector3i transformVector3i(Vector3i position) {
+        return transformationList.transformVector3i(position);
+    }
+
+    @Override
+    public Region3i transformRegion(Region3i region) {
+        return transformationList.transformRegion(region);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.assets.ResourceUrn;
+import org.terasology.math.ChunkMath;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link BlockRegionConditionCache}.
+ */
+public class BlockRegionConditionCacheTest {
+    private static final ResourceUrn CONDITION = new ResourceUrn("a:condition");
+
+    @Test
+    public void testStoredResultGetsReturned() {
+        BlockRegionConditionCache cache = new BlockRegionConditionCache();
+        Region3i region = createRegion(0, 0, 0, 3, 3, 3);
+        cache.put(CONDITION, region, Side.FRONT, false);
+
+        assertEquals(Boolean.FALSE, cache.get(CONDITION, createRegion(0, 0, 0, 3, 3, 3), Side.FRONT));
+        assertNull(cache.get(CONDITION, region, Side.LEFT));
+        assertNull(cache.get(new ResourceUrn("a:other"), region, Side.FRONT));
+    }
+
+    @Test
+    public void testBlockChangeInvalidatesOnlyAffectedChunks() {
+        BlockRegionConditionCache cache = new BlockRegionConditionCache();
+        Region3i regionInFirstChunk = createRegion(0, 0, 0, 3, 3, 3);
+        Region3i regionInOtherChunk = createRegion(200, 0, 200, 203, 3, 203);
+        cache.put(CONDITION, regionInFirstChunk, Side.FRONT, true);
+        cache.put(CONDITION, regionInOtherChunk, Side.FRONT, true);
+
+        cache.invalidateBlock(new Vector3i(10, 10, 10));
+
+        assertNull(cache.get(CONDITION, regionInFirstChunk, Side.FRONT));
+        assertEquals(Boolean.TRUE, cache.get(CONDITION, regionInOtherChunk, Side.FRONT));
+    }
+
+    @Test
+    public void testRegionSpanningChunksGetsInvalidatedByEachChunk() {
+        BlockRegionConditionCache cache = new BlockRegionConditionCache();
+        Region3i region = createRegion(-2, 0, -2, 2, 2, 2);
+        cache.put(CONDITION, region, Side.FRONT, true);
+
+        cache.invalidateChunk(ChunkMath.calcChunkPos(new Vector3i(-1, 0, -1)));
+
+        assertNull(cache.get(CONDITION, region, Side.FRONT));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryGetsDropped() {
+        BlockRegionConditionCache cache = new BlockRegionConditionCache(2);
+        Region3i regionA = createRegion(0, 0, 0, 1, 1, 1);
+        Region3i regionB = createRegion(2, 0, 0, 3, 1, 1);
+        Region3i regionC = createRegion(4, 0, 0, 5, 1, 1);
+        cache.put(CONDITION, regionA, Side.FRONT, true);
+        cache.put(CONDITION, regionB, Side.FRONT, true);
+        cache.get(CONDITION, regionA, Side.FRONT);
+        cache.put(CONDITION, regionC, Side.FRONT, true);
+
+        assertEquals(Boolean.TRUE, cache.get(CONDITION, regionA, Side.FRONT));
+        assertNull(cache.get(CONDITION, regionB, Side.FRONT));
+        assertEquals(Boolean.TRUE, cache.get(CONDITION, regionC, Side.FRONT));
+    }
+
+    private Region3i createRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return Region3i.createBounded(new Vector3i(minX, minY, minZ), new Vector3i(maxX, maxY, maxZ));
+    }
+}
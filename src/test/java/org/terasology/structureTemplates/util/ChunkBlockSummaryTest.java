@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockUri;
+import org.terasology.world.chunks.ChunkConstants;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link ChunkBlockSummary}.
+ */
+public class ChunkBlockSummaryTest {
+    private Block air;
+    private Block stone;
+    private Block water;
+
+    @Before
+    public void prepare() {
+        air = new Block();
+        air.setUri(new BlockUri("a:air"));
+        air.setPenetrable(true);
+        stone = new Block();
+        stone.setUri(new BlockUri("a:stone"));
+        water = new Block();
+        water.setUri(new BlockUri("a:water"));
+        water.setPenetrable(true);
+        water.setLiquid(true);
+    }
+
+    @Test
+    public void testCountsOfPartOfChunk() {
+        // stone below y = 10, a water pool at x = 3..4, y = 10, z = 5 and air elsewhere:
+        ChunkBlockSummary.BlockLookup lookup = (x, y, z) -> {
+            if (y < 10) {
+                return stone;
+            }
+            if (y == 10 && (x == 3 || x == 4) && z == 5) {
+                return water;
+            }
+            return air;
+        };
+        ChunkBlockSummary summary = ChunkBlockSummary.create(new Vector3i(0, 0, 0), lookup);
+
+        int chunkArea = ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z;
+        assertEquals(10 * chunkArea, summary.getSolidCount());
+        assertEquals(2, summary.getLiquidCount());
+
+        assertEquals(0, summary.countPenetrable(0, 0, 0, 5, 9, 5));
+        assertEquals(6 * 6, summary.countPenetrable(0, 10, 0, 5, 10, 5));
+        assertEquals(6 * 2 * 6, summary.countPenetrable(0, 9, 0, 5, 11, 5));
+        assertEquals(2, summary.countLiquid(0, 0, 0, 5, 20, 5));
+        assertEquals(1, summary.countLiquid(4, 10, 5, 4, 10, 5));
+    }
+
+    @Test
+    public void testCountsOfChunkWithNegativePosition() {
+        ChunkBlockSummary.BlockLookup lookup = (x, y, z) -> x == -1 && y == -1 && z == -1 ? stone : air;
+        ChunkBlockSummary summary = ChunkBlockSummary.create(new Vector3i(-1, -1, -1), lookup);
+
+        assertEquals(1, summary.getSolidCount());
+        assertEquals(7, summary.countPenetrable(-2, -2, -2, -1, -1, -1));
+    }
+
+    @Test
+    public void testBlockChangeUpdatesCounts() {
+        ChunkBlockSummary.BlockLookup lookup = (x, y, z) -> y == 0 ? stone : air;
+        ChunkBlockSummary summary = ChunkBlockSummary.create(new Vector3i(0, 0, 0), lookup);
+        int chunkArea = ChunkConstants.SIZE_X * ChunkConstants.SIZE_Z;
+        assertEquals(chunkArea, summary.getSolidCount());
+
+        summary.onBlockChanged(new Vector3i(1, 5, 1), air, stone);
+        summary.onBlockChanged(new Vector3i(0, 0, 0), stone, water);
+
+        assertEquals(chunkArea, summary.getSolidCount());
+        assertEquals(1, summary.getLiquidCount());
+        assertEquals(2 * 2 * 6 - 3 - 1, summary.countPenetrable(0, 0, 0, 1, 5, 1));
+        assertEquals(2 * 2 * 5 - 1, summary.countPenetrable(0, 1, 0, 1, 5, 1));
+        assertEquals(1, summary.countLiquid(0, 0, 0, 1, 5, 1));
+        assertEquals(0, summary.countLiquid(0, 1, 0, 1, 5, 1));
+    }
+}
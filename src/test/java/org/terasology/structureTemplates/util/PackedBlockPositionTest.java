@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link PackedBlockPosition}.
+ */
+public class PackedBlockPositionTest {
+
+    @Test
+    public void testPackAndUnpackExtremeCoordinates() {
+        Vector3i position = new Vector3i(-1048576, 1048575, -1);
+
+        long packed = PackedBlockPosition.pack(position);
+
+        assertEquals(position, PackedBlockPosition.unpack(packed));
+        assertEquals(-1048576, PackedBlockPosition.x(packed));
+        assertEquals(1048575, PackedBlockPosition.y(packed));
+        assertEquals(-1, PackedBlockPosition.z(packed));
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.PendingBlockPatchComponent;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockUri;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link PendingBlockPatches}.
+ */
+public class PendingBlockPatchesTest {
+
+    @Test
+    public void testLaterBlocksReplaceEarlierOnes() {
+        Block stone = new Block();
+        stone.setUri(new BlockUri("a:stone"));
+        Block dirt = new Block();
+        dirt.setUri(new BlockUri("a:dirt"));
+        PendingBlockPatchComponent patch = new PendingBlockPatchComponent();
+        patch.chunkPosition = new Vector3i(-1, 0, -1);
+
+        Map<Vector3i, Block> firstSpawn = new HashMap<>();
+        firstSpawn.put(new Vector3i(-1, 5, -1), stone);
+        firstSpawn.put(new Vector3i(-2, 5, -1), stone);
+        PendingBlockPatches.add(patch, firstSpawn);
+        Map<Vector3i, Block> secondSpawn = new HashMap<>();
+        secondSpawn.put(new Vector3i(-1, 5, -1), dirt);
+        PendingBlockPatches.add(patch, secondSpawn);
+
+        Map<Vector3i, Block> expected = new HashMap<>();
+        expected.put(new Vector3i(-1, 5, -1), dirt);
+        expected.put(new Vector3i(-2, 5, -1), stone);
+        assertEquals(expected, PendingBlockPatches.toBlockMap(patch));
+        assertEquals(2, patch.palette.size());
+        assertEquals(2, PendingBlockPatches.size(patch));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlocksOfOtherChunksGetRejected() {
+        PendingBlockPatchComponent patch = new PendingBlockPatchComponent();
+        patch.chunkPosition = new Vector3i(0, 0, 0);
+
+        PendingBlockPatches.add(patch, Collections.singletonMap(new Vector3i(-1, 0, 0), new Block()));
+    }
+}
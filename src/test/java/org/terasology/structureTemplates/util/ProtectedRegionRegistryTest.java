@@ -0,0 +1,91 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.math.Region3i;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.ProtectedRegionRegistryComponent.ProtectedRegion;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link ProtectedRegionRegistry}.
+ */
+public class ProtectedRegionRegistryTest {
+
+    @Test
+    public void testPositionsAndRegionsGetChecked() {
+        ProtectedRegionRegistry registry = new ProtectedRegionRegistry();
+        registry.add(createProtectedRegion(-5, 0, -5, 5, 5, 5, 1000));
+
+        assertTrue(registry.isProtected(new Vector3i(-5, 0, 5)));
+        assertFalse(registry.isProtected(new Vector3i(6, 0, 0)));
+        assertTrue(registry.intersectsProtectedRegion(createRegion(5, 5, 5, 300, 300, 300)));
+        assertFalse(registry.intersectsProtectedRegion(createRegion(6, 0, 0, 8, 2, 2)));
+    }
+
+    @Test
+    public void testOnlyExpiredRegionsGetRemoved() {
+        ProtectedRegionRegistry registry = new ProtectedRegionRegistry();
+        ProtectedRegion early = createProtectedRegion(0, 0, 0, 1, 1, 1, 1000);
+        ProtectedRegion late = createProtectedRegion(100, 0, 0, 101, 1, 1, 2000);
+        registry.add(late);
+        registry.add(early);
+
+        List<ProtectedRegion> removed = registry.removeExpired(1000);
+
+        assertEquals(1, removed.size());
+        assertSame(early, removed.get(0));
+        assertFalse(registry.isProtected(new Vector3i(0, 0, 0)));
+        assertTrue(registry.isProtected(new Vector3i(100, 0, 0)));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testRemovedRegionDoesNotExpireAgain() {
+        ProtectedRegionRegistry registry = new ProtectedRegionRegistry();
+        ProtectedRegion removedRegion = createProtectedRegion(0, 0, 0, 1, 1, 1, 1000);
+        ProtectedRegion otherRegion = createProtectedRegion(0, 0, 0, 1, 1, 1, 1000);
+        registry.add(removedRegion);
+        registry.add(otherRegion);
+
+        registry.remove(removedRegion);
+
+        assertTrue(registry.isProtected(new Vector3i(0, 0, 0)));
+        List<ProtectedRegion> removed = registry.removeExpired(1000);
+        assertEquals(1, removed.size());
+        assertSame(otherRegion, removed.get(0));
+        assertTrue(registry.isEmpty());
+    }
+
+    private ProtectedRegion createProtectedRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                                                  long expiryTime) {
+        ProtectedRegion protectedRegion = new ProtectedRegion();
+        protectedRegion.region = createRegion(minX, minY, minZ, maxX, maxY, maxZ);
+        protectedRegion.expiryTime = expiryTime;
+        return protectedRegion;
+    }
+
+    private Region3i createRegion(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return Region3i.createBounded(new Vector3i(minX, minY, minZ), new Vector3i(maxX, maxY, maxZ));
+    }
+}
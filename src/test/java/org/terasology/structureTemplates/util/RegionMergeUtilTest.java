@@ -25,8 +25,10 @@ import org.terasology.world.block.BlockUri;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Tests for {@link   RegionMergeUtil}. Tests exemplay the region merging method mergeRegionsByX.
@@ -171,6 +173,32 @@ public class RegionMergeUtilTest {
     }
 
 
+    @Test
+    public void testSubtractRegionFromItsCenter() {
+        Region3i region = Region3i.createFromMinMax(new Vector3i(0, 0, 0), new Vector3i(4, 4, 4));
+        Region3i center = Region3i.createFromMinMax(new Vector3i(1, 1, 1), new Vector3i(3, 3, 3));
+
+        List<Region3i> remainingRegions = RegionMergeUtil.subtractRegion(region, center);
+
+        assertEquals(6, remainingRegions.size());
+        Set<Vector3i> remainingPositions = RegionMergeUtil.positionsOfRegions(remainingRegions);
+        assertEquals(125 - 27, remainingPositions.size());
+        for (Vector3i position : center) {
+            assertFalse(remainingPositions.contains(position));
+        }
+    }
+
+    @Test
+    public void testSubtractRegionWithoutIntersection() {
+        Region3i region = Region3i.createFromMinMax(new Vector3i(0, 0, 0), new Vector3i(1, 1, 1));
+        Region3i other = Region3i.createFromMinMax(new Vector3i(5, 0, 0), new Vector3i(6, 1, 1));
+
+        List<Region3i> remainingRegions = RegionMergeUtil.subtractRegion(region, other);
+
+        assertEquals(1, remainingRegions.size());
+        assertEquals(region, remainingRegions.get(0));
+    }
+
     @Test
     public void testMergeRegionsByXWithBasicSuccessCase() {
         List<RegionToFill> regions = new ArrayList<>();
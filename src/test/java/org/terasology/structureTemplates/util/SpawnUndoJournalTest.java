@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.world.block.Block;
+import org.terasology.world.block.BlockUri;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link SpawnUndoJournal}.
+ */
+public class SpawnUndoJournalTest {
+    private Block air;
+    private Block stone;
+
+    @Before
+    public void prepare() {
+        air = new Block();
+        air.setUri(new BlockUri("a:air"));
+        stone = new Block();
+        stone.setUri(new BlockUri("a:stone"));
+    }
+
+    @Test
+    public void testOnlyRecordedPositionsGetRestored() {
+        ChunkBlockSummary.BlockLookup lookup = (x, y, z) -> y < 2 ? stone : air;
+        List<Vector3i> positions = Arrays.asList(new Vector3i(0, 0, 0), new Vector3i(0, 1, 0),
+                new Vector3i(3, 2, 3), new Vector3i(3, 3, 3));
+        SpawnUndoJournal journal = new SpawnUndoJournal();
+        SpawnUndoJournal.Entry entry = journal.startEntry();
+        entry.recordChunk(positions, lookup);
+        journal.add(entry);
+
+        List<Map<Vector3i, Block>> restoredChunks = new ArrayList<>();
+        journal.removeLatest().restore(restoredChunks::add);
+
+        assertEquals(1, restoredChunks.size());
+        Map<Vector3i, Block> expected = new HashMap<>();
+        expected.put(new Vector3i(0, 0, 0), stone);
+        expected.put(new Vector3i(0, 1, 0), stone);
+        expected.put(new Vector3i(3, 2, 3), air);
+        expected.put(new Vector3i(3, 3, 3), air);
+        assertEquals(expected, restoredChunks.get(0));
+        assertNull(journal.removeLatest());
+    }
+
+    @Test
+    public void testOldestEntriesGetDropped() {
+        SpawnUndoJournal journal = new SpawnUndoJournal(2);
+        SpawnUndoJournal.Entry first = journal.startEntry();
+        SpawnUndoJournal.Entry second = journal.startEntry();
+        SpawnUndoJournal.Entry third = journal.startEntry();
+        journal.add(first);
+        journal.add(second);
+        journal.add(third);
+
+        assertEquals(2, journal.size());
+        assertSame(third, journal.removeLatest());
+        assertSame(second, journal.removeLatest());
+        assertNull(journal.removeLatest());
+    }
+}
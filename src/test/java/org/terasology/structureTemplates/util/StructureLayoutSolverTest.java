@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.util.transform.BlockRegionMovement;
+import org.terasology.structureTemplates.util.transform.BlockRegionTransform;
+import org.terasology.world.block.Block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link StructureLayoutSolver}.
+ *
+ * The templates of the tests face {@link Side#FRONT}, so that they get only moved to their placeholders.
+ */
+public class StructureLayoutSolverTest {
+    private static final Block BLOCK = new Block();
+
+    @Test
+    public void testPlaceholdersBeyondMaxDepthStayUnsolved() {
+        TestTemplate root = new TestTemplate("root", region(0, 0, 0, 0, 0, 0), new Vector3i(0, 0, 1));
+        TestTemplate corridor = new TestTemplate("corridor", region(0, 0, 0, 0, 0, 1), new Vector3i(0, 0, 2));
+        StructureLayoutSolver<TestTemplate> solver = new StructureLayoutSolver<>(
+                new TestTemplates(corridor), 3, StructureLayoutSolver.DEFAULT_MAX_ATTEMPTS);
+
+        List<StructureLayoutSolver.Placement<TestTemplate>> placements = solver.solve(root, origin());
+
+        assertEquals(Arrays.asList("corridor at (0,0,1)", "corridor at (0,0,3)", "corridor at (0,0,5)"),
+                describe(placements));
+        assertEquals(2, placements.get(2).getDepth());
+        assertEquals(1, solver.getUnsolvedPlaceholders().size());
+        StructureLayoutSolver.Placeholder unsolvedPlaceholder = solver.getUnsolvedPlaceholders().get(0);
+        assertEquals(new Vector3i(0, 0, 7), unsolvedPlaceholder.getPosition());
+        assertEquals(3, unsolvedPlaceholder.getDepth());
+    }
+
+    @Test
+    public void testCandidateWithIncompleteSubtreeGetsRolledBack() {
+        TestTemplate root = new TestTemplate("root", Arrays.asList(region(0, 0, 0, 0, 0, 0), region(0, 0, 3, 0, 0, 3)),
+                Collections.singletonList(new Vector3i(0, 0, 1)));
+        TestTemplate corridor = new TestTemplate("corridor", region(0, 0, 0, 0, 0, 1), new Vector3i(0, 0, 2));
+        TestTemplate end = new TestTemplate("end", region(0, 0, 0, 0, 0, 0));
+        // the placeholder of the corridor can't be filled, as the root occupies its position:
+        StructureLayoutSolver<TestTemplate> solver = new StructureLayoutSolver<>(
+                new TestTemplates(corridor, end), StructureLayoutSolver.DEFAULT_MAX_DEPTH,
+                StructureLayoutSolver.DEFAULT_MAX_ATTEMPTS);
+
+        List<StructureLayoutSolver.Placement<TestTemplate>> placements = solver.solve(root, origin());
+
+        assertEquals(Collections.singletonList("end at (0,0,1)"), describe(placements));
+        assertEquals(0, solver.getUnsolvedPlaceholders().size());
+    }
+
+    @Test
+    public void testFirstFittingCandidateGetsAcceptedAfterMaxAttempts() {
+        TestTemplate root = new TestTemplate("root", Arrays.asList(region(0, 0, 0, 0, 0, 0), region(0, 0, 3, 0, 0, 3)),
+                Collections.singletonList(new Vector3i(0, 0, 1)));
+        TestTemplate corridor = new TestTemplate("corridor", region(0, 0, 0, 0, 0, 1), new Vector3i(0, 0, 2));
+        TestTemplate end = new TestTemplate("end", region(0, 0, 0, 0, 0, 0));
+        StructureLayoutSolver<TestTemplate> solver = new StructureLayoutSolver<>(
+                new TestTemplates(corridor, end), StructureLayoutSolver.DEFAULT_MAX_DEPTH, 0);
+
+        List<StructureLayoutSolver.Placement<TestTemplate>> placements = solver.solve(root, origin());
+
+        assertEquals(Collections.singletonList("corridor at (0,0,1)"), describe(placements));
+        assertEquals(3, solver.getAttempts());
+    }
+
+    @Test
+    public void testPlaceholdersGetCutOffOnceBlockLimitIsReached() {
+        TestTemplate root = new TestTemplate("root", region(0, 0, 0, 0, 0, 0), new Vector3i(0, 0, 1));
+        TestTemplate corridor = new TestTemplate("corridor", region(0, 0, 0, 0, 0, 1), new Vector3i(0, 0, 2));
+        StructureLayoutSolver<TestTemplate> solver = new StructureLayoutSolver<>(new TestTemplates(corridor),
+                StructureLayoutSolver.DEFAULT_MAX_DEPTH, StructureLayoutSolver.DEFAULT_MAX_ATTEMPTS,
+                Integer.MAX_VALUE, 3);
+
+        List<StructureLayoutSolver.Placement<TestTemplate>> placements = solver.solve(root, origin());
+
+        assertEquals(Arrays.asList("corridor at (0,0,1)", "corridor at (0,0,3)"), describe(placements));
+        assertEquals(1, solver.getCutOffPlaceholderCount());
+        assertEquals(0, solver.getUnsolvedPlaceholders().size());
+    }
+
+    @Test
+    public void testSpawnConditionsSeeBlocksOfPlannedStructures() {
+        TestTemplate root = new TestTemplate("root", region(0, 0, 0, 0, 0, 0), new Vector3i(0, 0, 1));
+        TestTemplate bridge = new TestTemplate("bridge", region(0, 0, 0, 0, 0, 0));
+        bridge.condition = (position, plannedBlocks) ->
+                plannedBlocks.getBlock(position.x, position.y - 1, position.z) != null;
+        TestTemplate floor = new TestTemplate("floor", region(0, -1, 0, 0, -1, 1), new Vector3i(0, 0, 1));
+        StructureLayoutSolver<TestTemplate> solver = new StructureLayoutSolver<>(
+                new TestTemplates(bridge, floor), StructureLayoutSolver.DEFAULT_MAX_DEPTH,
+                StructureLayoutSolver.DEFAULT_MAX_ATTEMPTS);
+
+        List<StructureLayoutSolver.Placement<TestTemplate>> placements = solver.solve(root, origin());
+
+        assertEquals(Arrays.asList("floor at (0,0,1)", "bridge at (0,0,2)"), describe(placements));
+    }
+
+    private static BlockRegionTransform origin() {
+        return new BlockRegionMovement(new Vector3i(0, 0, 0));
+    }
+
+    private static Region3i region(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return Region3i.createFromMinMax(new Vector3i(minX, minY, minZ), new Vector3i(maxX, maxY, maxZ));
+    }
+
+    private static List<String> describe(List<StructureLayoutSolver.Placement<TestTemplate>> placements) {
+        List<String> descriptions = new ArrayList<>();
+        for (StructureLayoutSolver.Placement<TestTemplate> placement : placements) {
+            Vector3i origin = placement.getTransformation().transformVector3i(new Vector3i(0, 0, 0));
+            descriptions.add(placement.getTemplate().name + " at (" + origin.x + "," + origin.y + "," + origin.z + ")");
+        }
+        return descriptions;
+    }
+
+    private static final class TestTemplate {
+        private final String name;
+        private final List<Region3i> regions;
+        private final List<Vector3i> placeholderPositions;
+        private BiPredicate<Vector3i, PlannedBlocks> condition = (position, plannedBlocks) -> true;
+
+        private TestTemplate(String name, List<Region3i> regions, List<Vector3i> placeholderPositions) {
+            this.name = name;
+            this.regions = regions;
+            this.placeholderPositions = placeholderPositions;
+        }
+
+        private TestTemplate(String name, Region3i region, Vector3i... placeholderPositions) {
+            this(name, Collections.singletonList(region), Arrays.asList(placeholderPositions));
+        }
+    }
+
+    private static final class TestTemplates implements StructureLayoutSolver.Templates<TestTemplate> {
+        private final List<TestTemplate> candidates;
+
+        private TestTemplates(TestTemplate... candidates) {
+            this.candidates = Arrays.asList(candidates);
+        }
+
+        @Override
+        public Iterator<TestTemplate> iterateCandidates(StructureLayoutSolver.Placeholder placeholder) {
+            return candidates.iterator();
+        }
+
+        @Override
+        public List<Region3i> getRegions(TestTemplate template) {
+            return template.regions;
+        }
+
+        @Override
+        public List<StructureLayoutSolver.Placeholder> getPlaceholders(TestTemplate template,
+                                                                      BlockRegionTransform transformation,
+                                                                      int depth) {
+            List<StructureLayoutSolver.Placeholder> placeholders = new ArrayList<>();
+            for (Vector3i position : template.placeholderPositions) {
+                placeholders.add(new StructureLayoutSolver.Placeholder(null, transformation.transformVector3i(position),
+                        transformation.transformSide(Side.FRONT), depth, 0));
+            }
+            return placeholders;
+        }
+
+        @Override
+        public Map<Vector3i, Block> getBlocks(TestTemplate template, BlockRegionTransform transformation) {
+            Map<Vector3i, Block> blocks = new LinkedHashMap<>();
+            for (Region3i region : template.regions) {
+                for (Vector3i position : transformation.transformRegion(region)) {
+                    blocks.put(new Vector3i(position), BLOCK);
+                }
+            }
+            return blocks;
+        }
+
+        @Override
+        public boolean meetsSpawnConditions(TestTemplate template, BlockRegionTransform transformation,
+                                            PlannedBlocks plannedBlocks) {
+            return template.condition.test(transformation.transformVector3i(new Vector3i(0, 0, 0)), plannedBlocks);
+        }
+    }
+}
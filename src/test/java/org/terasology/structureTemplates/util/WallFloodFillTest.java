@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 MovingBlocks
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.terasology.structureTemplates.util;
+
+import org.junit.Test;
+import org.terasology.math.Region3i;
+import org.terasology.math.Side;
+import org.terasology.math.geom.Vector3i;
+import org.terasology.structureTemplates.internal.components.ReplaceWallItemComponent.ReplacementType;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link WallFloodFill}.
+ */
+public class WallFloodFillTest {
+
+    @Test
+    public void testFillFindsWallUpToItsBorders() {
+        // A 5x3 wall at z = 0 with air on both sides and solid ground below y = 0:
+        WallFloodFill.PenetrabilityLookup lookup = (x, y, z) -> {
+            boolean inWall = z == 0 && x >= -2 && x <= 2 && y >= 0 && y <= 2;
+            boolean inGround = y < 0;
+            return !inWall && !inGround;
+        };
+
+        WallFloodFill.Result result = WallFloodFill.fill(new Vector3i(0, 1, 0), Side.BACK, ReplacementType.WALL,
+                100, lookup);
+
+        assertEquals(15, result.getPositions().size());
+        assertTrue(result.getPositions().contains(PackedBlockPosition.pack(-2, 0, 0)));
+        assertTrue(result.getReadRegion().encompasses(new Vector3i(2, 2, 0)));
+        assertEquals(2, result.getReadRegion().sizeZ());
+
+        List<Region3i> regions = RegionMergeUtil.mergePositionsIntoRegions(result.getPositions());
+        assertEquals(1, regions.size());
+        assertEquals(Region3i.createFromMinMax(new Vector3i(-2, 0, 0), new Vector3i(2, 2, 0)), regions.get(0));
+    }
+
+    @Test
+    public void testFillStopsAtMaximumPositions() {
+        WallFloodFill.PenetrabilityLookup lookup = (x, y, z) -> z != 0;
+
+        WallFloodFill.Result result = WallFloodFill.fill(new Vector3i(0, 0, 0), Side.BACK, ReplacementType.WALL,
+                10, lookup);
+
+        assertEquals(10, result.getPositions().size());
+    }
+}